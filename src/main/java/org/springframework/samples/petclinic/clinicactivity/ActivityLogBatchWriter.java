@@ -0,0 +1,93 @@
+package org.springframework.samples.petclinic.clinicactivity;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.samples.petclinic.jobs.JobProgress;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.function.Consumer;
+
+/**
+ * JDBC batch loader for clinic_activity_logs on databases without COPY.
+ * <p>
+ * Rows are generated lazily inside {@link BatchPreparedStatementSetter#setValues} into a single
+ * reusable {@link ActivityLogRow}, so no per-row parameter arrays are allocated. The load is split
+ * into chunks of {@code commitEvery} rows, each committed in its own transaction, so undo/redo logs
+ * stay bounded and a failure only loses the current chunk.
+ * <p>
+ * Turning a batch into multi-row INSERTs is left to the driver: MySQL needs {@code rewriteBatchedStatements=true}
+ * and PostgreSQL {@code reWriteBatchedInserts=true} (see the {@code data-source-properties} of each datasource),
+ * otherwise each batched row is still its own round trip.
+ */
+final class ActivityLogBatchWriter {
+
+    private static final Logger logger = LoggerFactory.getLogger(ActivityLogBatchWriter.class);
+
+    private static final String INSERT_SQL =
+        "INSERT INTO clinic_activity_logs (activity_type, numeric_value, event_timestamp, status_flag, payload) VALUES (?, ?, ?, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate chunkTransaction;
+    private final int batchSize;
+    private final int commitEvery;
+
+    ActivityLogBatchWriter(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager,
+                           int batchSize, int commitEvery) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.chunkTransaction = new TransactionTemplate(transactionManager);
+        this.chunkTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.batchSize = Math.max(1, batchSize);
+        this.commitEvery = Math.max(this.batchSize, commitEvery);
+    }
+
+    /**
+     * Inserts {@code totalEntries} generated rows. {@code beforeCommit} gets the rows of every chunk inside its
+     * transaction, once they are all inserted, e.g. to register work for when the chunk commits.
+     */
+    void write(int totalEntries, ActivityRowGenerator generator, JobProgress progress,
+               Consumer<ActivityLogCounters.Delta> beforeCommit) {
+        ActivityLogRow row = new ActivityLogRow();
+        int written = 0;
+        while (written < totalEntries) {
+            int chunkRows = Math.min(commitEvery, totalEntries - written);
+            ActivityLogCounters.Delta delta = new ActivityLogCounters.Delta();
+            chunkTransaction.executeWithoutResult(status -> {
+                for (int done = 0; done < chunkRows; ) {
+                    int rows = Math.min(batchSize, chunkRows - done);
+                    progress.checkCancelled();
+                    jdbcTemplate.batchUpdate(INSERT_SQL, new BatchPreparedStatementSetter() {
+                        @Override
+                        public void setValues(PreparedStatement ps, int i) throws SQLException {
+                            generator.fill(row);
+                            delta.add(row);
+                            ps.setString(1, row.activityType);
+                            ps.setInt(2, row.numericValue);
+                            ps.setTimestamp(3, Timestamp.valueOf(row.eventTimestamp));
+                            ps.setBoolean(4, row.statusFlag);
+                            ps.setString(5, row.payload);
+                        }
+
+                        @Override
+                        public int getBatchSize() {
+                            return rows;
+                        }
+                    });
+                    progress.advance(rows);
+                    done += rows;
+                }
+                beforeCommit.accept(delta);
+            });
+            written += chunkRows;
+            if (logger.isInfoEnabled()) {
+                logger.info("JDBC batch inserted and committed {} / {} clinic activity logs...", written, totalEntries);
+            }
+        }
+    }
+}
@@ -0,0 +1,268 @@
+package org.springframework.samples.petclinic.clinicactivity;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.context.annotation.Profile;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.sql.SQLException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-memory per-activity-type totals of clinic_activity_logs, so ratio requests are answered without
+ * counting the table. The aggregate is loaded with a single GROUP BY the first time it is needed (or on
+ * {@link #refresh()}), then kept current by the loaders, which add the rows of every committed batch,
+ * and by cleanup, which resets it once its transaction has committed.
+ * <p>
+ * A loader commits and adds its rows under the read lock ({@link #commitAndApply}, {@link #applyAfterCommit}),
+ * while a recount holds the write lock. So a recount either runs before a batch commits (and the batch is
+ * added to the new aggregate) or after it has been added (and replaces it with a count that includes the
+ * batch); it never counts a batch that is then added a second time.
+ */
+@Component
+@Profile({"postgres", "mysql"})
+public class ActivityLogCounters {
+
+    private static final Logger logger = LoggerFactory.getLogger(ActivityLogCounters.class);
+
+    // Same condition as ClinicActivityLogRepository.countActiveLogsByType
+    static final int ACTIVE_THRESHOLD = 99_999;
+
+    public record TypeCounts(long total, long active) {
+    }
+
+    private static final class Counter {
+        final LongAdder total = new LongAdder();
+        final LongAdder active = new LongAdder();
+    }
+
+    /**
+     * Rows counted by one loader transaction; added once it has committed.
+     * Not thread-safe, every worker keeps its own.
+     */
+    static final class Delta {
+
+        private final Map<String, long[]> counts = new HashMap<>();
+
+        void add(ActivityLogRow row) {
+            long[] c = counts.computeIfAbsent(row.activityType, type -> new long[2]);
+            c[0]++;
+            if (row.numericValue > ACTIVE_THRESHOLD) {
+                c[1]++;
+            }
+        }
+    }
+
+    /**
+     * Commits a load's transaction, e.g. {@code connection::commit}.
+     */
+    @FunctionalInterface
+    interface Commit {
+        void run() throws SQLException;
+    }
+
+    private final JdbcTemplate jdbcTemplate;
+    // Read: commit and add a batch; write: recount or replace the aggregate
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private volatile Map<String, Counter> counters;
+
+    public ActivityLogCounters(@Qualifier("postgresJdbcTemplate") JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Share of logs of the given type that are active, or 0.0 if there are none of that type.
+     */
+    public double activeRatio(String type) {
+        Counter counter = counters().get(type);
+        if (counter == null) {
+            return 0.0;
+        }
+        long total = counter.total.sum();
+        return total == 0 ? 0.0 : (double) counter.active.sum() / total;
+    }
+
+    public Map<String, TypeCounts> snapshot() {
+        return snapshot(counters());
+    }
+
+    /**
+     * Recounts every type from the table with one aggregate query.
+     */
+    public Map<String, TypeCounts> refresh() {
+        lock.writeLock().lock();
+        try {
+            return snapshot(recount());
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Commits a load and adds its rows, with no recount in between.
+     */
+    void commitAndApply(Delta delta, Commit commit) throws SQLException {
+        lock.readLock().lock();
+        try {
+            commit.run();
+            apply(delta);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Like {@link #commitAndApply}, for a load running in the current Spring-managed transaction: the rows
+     * are added when it commits, and the read lock is held from just before the commit until then.
+     */
+    void applyAfterCommit(Delta delta) {
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            private boolean locked;
+
+            @Override
+            public void beforeCommit(boolean readOnly) {
+                lock.readLock().lock();
+                locked = true;
+            }
+
+            @Override
+            public void afterCompletion(int status) {
+                if (!locked) {
+                    return;
+                }
+                try {
+                    if (status == STATUS_COMMITTED) {
+                        apply(delta);
+                    } else if (status == STATUS_UNKNOWN) {
+                        // The rows may or may not be in the table; recount on the next read
+                        counters = null;
+                    }
+                } finally {
+                    lock.readLock().unlock();
+                }
+            }
+        });
+    }
+
+    /**
+     * The table was emptied.
+     */
+    void reset() {
+        replace(new ConcurrentHashMap<>());
+    }
+
+    /**
+     * Like {@link #reset()}, but when called inside a transaction waits until it has committed, so
+     * reads before the commit still see the rows and a rollback leaves the totals untouched.
+     */
+    void resetAfterCommit() {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            reset();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                reset();
+            }
+        });
+    }
+
+    /**
+     * Rows were removed selectively; the next read recounts them.
+     */
+    void invalidate() {
+        replace(null);
+    }
+
+    /**
+     * Like {@link #invalidate()}, but when called inside a transaction invalidates again once it
+     * completes, so a recount that read the rows before the commit does not survive it.
+     */
+    void invalidateOnCompletion() {
+        invalidate();
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    invalidate();
+                }
+            });
+        }
+    }
+
+    /**
+     * Adds the rows of a committed load; the caller holds the read lock. Ignored until the aggregate has
+     * been loaded, since the first recount reads them from the table anyway.
+     */
+    private void apply(Delta delta) {
+        Map<String, Counter> current = counters;
+        if (current == null) {
+            return;
+        }
+        delta.counts.forEach((type, c) -> {
+            Counter counter = current.computeIfAbsent(type, t -> new Counter());
+            counter.total.add(c[0]);
+            counter.active.add(c[1]);
+        });
+    }
+
+    private void replace(Map<String, Counter> replacement) {
+        lock.writeLock().lock();
+        try {
+            counters = replacement;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // Caller holds the write lock
+    private Map<String, Counter> recount() {
+        long startTime = System.currentTimeMillis();
+        Map<String, Counter> fresh = new ConcurrentHashMap<>();
+        jdbcTemplate.query(
+            "SELECT activity_type, COUNT(*), SUM(CASE WHEN numeric_value > " + ACTIVE_THRESHOLD + " THEN 1 ELSE 0 END) " +
+                "FROM clinic_activity_logs WHERE activity_type IS NOT NULL GROUP BY activity_type",
+            rs -> {
+                Counter counter = new Counter();
+                counter.total.add(rs.getLong(2));
+                counter.active.add(rs.getLong(3));
+                fresh.put(rs.getString(1), counter);
+            });
+        counters = fresh;
+        logger.info("Refreshed clinic activity counters for {} types in {} ms.", fresh.size(), System.currentTimeMillis() - startTime);
+        return fresh;
+    }
+
+    private static Map<String, TypeCounts> snapshot(Map<String, Counter> counters) {
+        Map<String, TypeCounts> snapshot = new TreeMap<>();
+        counters.forEach((type, c) -> snapshot.put(type, new TypeCounts(c.total.sum(), c.active.sum())));
+        return snapshot;
+    }
+
+    private Map<String, Counter> counters() {
+        Map<String, Counter> current = counters;
+        if (current == null) {
+            lock.writeLock().lock();
+            try {
+                current = counters;
+                if (current == null) {
+                    current = recount();
+                }
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+        return current;
+    }
+}
@@ -0,0 +1,17 @@
+package org.springframework.samples.petclinic.clinicactivity;
+
+import java.time.LocalDateTime;
+
+/**
+ * Mutable holder for one generated clinic_activity_logs row. Loaders refill a single instance
+ * per worker instead of allocating a row object for every generated entry.
+ */
+final class ActivityLogRow {
+
+    String activityType;
+    int numericValue;
+    LocalDateTime eventTimestamp;
+    boolean statusFlag;
+    String payload;
+
+}
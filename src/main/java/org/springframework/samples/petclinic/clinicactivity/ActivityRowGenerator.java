@@ -0,0 +1,43 @@
+package org.springframework.samples.petclinic.clinicactivity;
+
+import java.time.LocalDateTime;
+import java.util.Locale;
+
+/**
+ * Produces synthetic clinic_activity_logs rows for the bulk loaders. Implementations are not
+ * thread-safe; every loader worker creates its own instance from its own seed, so parallel
+ * workers never contend on a shared random source and a given seed always yields the same rows.
+ */
+interface ActivityRowGenerator {
+
+    String FAKER = "faker";
+    String SYNTHETIC = "synthetic";
+
+    /**
+     * Refills the given holder with the next generated row.
+     */
+    void fill(ActivityLogRow row);
+
+    /**
+     * Creates a generator of the given kind whose event timestamps fall in {@code [from, to)}.
+     * @param kind {@value #FAKER} or {@value #SYNTHETIC}
+     */
+    static ActivityRowGenerator create(String kind, long seed, LocalDateTime from, LocalDateTime to) {
+        return switch (normalize(kind)) {
+            case FAKER -> new FakerActivityRowGenerator(seed, from, to);
+            default -> new SyntheticActivityRowGenerator(seed, from, to);
+        };
+    }
+
+    /**
+     * Validates a generator kind from a request or property and returns its canonical name.
+     */
+    static String normalize(String kind) {
+        String normalized = kind.trim().toLowerCase(Locale.ROOT);
+        if (!FAKER.equals(normalized) && !SYNTHETIC.equals(normalized)) {
+            throw new IllegalArgumentException(
+                "Unsupported row generator '" + kind + "', expected " + FAKER + " or " + SYNTHETIC);
+        }
+        return normalized;
+    }
+}
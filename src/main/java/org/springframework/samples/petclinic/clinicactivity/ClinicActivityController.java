@@ -11,12 +11,22 @@ import org.springframework.beans.factory.InitializingBean;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.context.annotation.Profile;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.samples.petclinic.jobs.Job;
+import org.springframework.samples.petclinic.jobs.JobController;
+import org.springframework.samples.petclinic.jobs.JobProgress;
+import org.springframework.samples.petclinic.jobs.JobService;
 import org.springframework.samples.petclinic.model.ClinicActivityLog;
+import org.springframework.samples.petclinic.system.ExportReader;
+import org.springframework.samples.petclinic.system.NdjsonStreamWriter;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ThreadLocalRandom;
@@ -31,6 +41,12 @@ public class ClinicActivityController implements InitializingBean {
     private final ClinicActivityDataService dataService;
     private final ClinicActivityLogRepository repository;
     private final JdbcTemplate jdbcTemplate;
+    private final JobService jobService;
+    private final ClinicActivityQueryService queryService;
+    private final ClinicActivityIndexAdvisor indexAdvisor;
+    private final ClinicActivityPartitionManager partitionManager;
+    private final ActivityLogCounters counters;
+    private final IoLoadEngine ioLoadEngine;
 
     @Autowired
     private OpenTelemetry openTelemetry;
@@ -40,10 +56,22 @@ public class ClinicActivityController implements InitializingBean {
     @Autowired
     public ClinicActivityController(ClinicActivityDataService dataService,
                                     ClinicActivityLogRepository repository,
-                                    @Qualifier("postgresJdbcTemplate") JdbcTemplate jdbcTemplate) {
+                                    @Qualifier("postgresJdbcTemplate") JdbcTemplate jdbcTemplate,
+                                    JobService jobService,
+                                    ClinicActivityQueryService queryService,
+                                    ClinicActivityIndexAdvisor indexAdvisor,
+                                    ClinicActivityPartitionManager partitionManager,
+                                    ActivityLogCounters counters,
+                                    IoLoadEngine ioLoadEngine) {
         this.dataService = dataService;
         this.repository = repository;
         this.jdbcTemplate = jdbcTemplate;
+        this.jobService = jobService;
+        this.queryService = queryService;
+        this.indexAdvisor = indexAdvisor;
+        this.partitionManager = partitionManager;
+        this.counters = counters;
+        this.ioLoadEngine = ioLoadEngine;
     }
 
     @Override
@@ -51,49 +79,102 @@ public class ClinicActivityController implements InitializingBean {
         this.otelTracer = openTelemetry.getTracer("ClinicActivityController");
     }
 
-	// This ep is here to throw error
 	@GetMapping("active-errors-ratio")
-	public int getActiveErrorsRatio() {
+	public double getActiveErrorsRatio() {
 		return dataService.getActiveLogsRatio("errors");
 	}
 
-	// This ep is here to throw error
 	@GetMapping("active-warning-ratio")
-	public int getActiveWarningsRatio() {
+	public double getActiveWarningsRatio() {
 		return dataService.getActiveLogsRatio("warnings");
 	}
 
+	// Recounts the per-type totals behind the ratio endpoints with a single GROUP BY
+	@PostMapping("/refresh-counters")
+	public Map<String, ActivityLogCounters.TypeCounts> refreshCounters() {
+		return counters.refresh();
+	}
+
 	@PostMapping("/populate-logs")
-    public ResponseEntity<String> populateData(@RequestParam(name = "count", defaultValue = "6000000") int count) {
+    public ResponseEntity<String> populateData(@RequestParam(name = "count", defaultValue = "6000000") int count,
+                                               @RequestParam(name = "workers", required = false) Integer workers,
+                                               @RequestParam(name = "format", defaultValue = "csv") String format,
+                                               @RequestParam(name = "generator", required = false) String generator,
+                                               @RequestParam(name = "seed", required = false) Long seed) {
         logger.info("Received request to populate {} clinic activity logs.", count);
         if (count <= 0) {
             return ResponseEntity.badRequest().body("Count must be a positive integer.");
         }
+        if (workers != null && workers <= 0) {
+            return ResponseEntity.badRequest().body("Workers must be a positive integer.");
+        }
+        LoadOptions options;
         try {
-            dataService.populateData(count);
-            return ResponseEntity.ok("Successfully initiated population of " + count + " clinic activity logs.");
-        } catch (Exception e) {
-            logger.error("Error during clinic activity log population", e);
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body("Error during data population: " + e.getMessage());
+            options = new LoadOptions(workers != null ? workers : 0, CopyFormat.of(format), generator, seed);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
         }
+        Job job = jobService.submit("populate-logs", count, progress -> {
+            PopulationReport report = dataService.populateData(count, options, progress);
+            return "Successfully populated " + count + " clinic activity logs: " + report + "." + provisionIndexesIfEnabled();
+        });
+        return JobController.accepted(job, "Population of " + count + " clinic activity logs");
     }
 
-    @GetMapping(value = "/query-logs", produces = "application/json")
-    public List<Map<String, Object>> getLogs(
+    /**
+     * Streams one keyset page of logs as a JSON array. Pass the last returned id as {@code afterId}
+     * to fetch the next page; an empty array means there are no more rows.
+     */
+    @GetMapping("/query-logs")
+    public ResponseEntity<?> getLogs(
+            @RequestParam(name = "numericValue", defaultValue = "50000") int numericValue,
+            @RequestParam(name = "afterId", defaultValue = "0") long afterId,
+            @RequestParam(name = "pageSize", defaultValue = "1000") int pageSize,
+            @RequestParam(name = "columns", required = false) List<String> columns,
             @RequestParam(name = "repetitions", defaultValue = "1") int repetitions) {
-        int numericValueToTest = 50000;
-        String sql = "SELECT id, activity_type, numeric_value, event_timestamp, status_flag, payload FROM clinic_activity_logs WHERE numeric_value = ?";
-        List<Map<String, Object>> lastResults = null;
-        for (int i = 0; i < repetitions; i++) {
-            lastResults = jdbcTemplate.queryForList(sql, numericValueToTest);
+        StreamingResponseBody body;
+        try {
+            body = queryService.queryLogs(numericValue, afterId, pageSize, columns, repetitions);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
         }
-        return lastResults;
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON).body(body);
+    }
+
+    /**
+     * Streams every log matching the criteria as newline-delimited JSON, one object per line, without
+     * loading the result into memory. Dates are ISO date-times, {@code endDate} is exclusive.
+     * {@code reader=stateless} (the default) scrolls through a stateless session; {@code jpa} streams managed entities.
+     */
+    @GetMapping("/export-logs")
+    public ResponseEntity<?> exportLogs(
+            @RequestParam(name = "activityType") String activityType,
+            @RequestParam(name = "minNumericValue", defaultValue = "0") int minNumericValue,
+            @RequestParam(name = "maxNumericValue", defaultValue = "2147483647") int maxNumericValue,
+            @RequestParam(name = "startDate") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime startDate,
+            @RequestParam(name = "endDate") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime endDate,
+            @RequestParam(name = "statusFlag", defaultValue = "true") boolean statusFlag,
+            @RequestParam(name = "reader", defaultValue = "stateless") String reader) {
+        StreamingResponseBody body;
+        try {
+            body = queryService.exportLogs(activityType, minNumericValue, maxNumericValue, startDate, endDate, statusFlag, ExportReader.of(reader));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+        return ResponseEntity.ok().contentType(MediaType.parseMediaType(NdjsonStreamWriter.MEDIA_TYPE)).body(body);
     }
 
     @DeleteMapping("/cleanup-logs")
-    public ResponseEntity<String> cleanupLogs() {
-        logger.info("Received request to cleanup all clinic activity logs.");
+    public ResponseEntity<String> cleanupLogs(@RequestParam(name = "olderThanMonths", required = false) Integer olderThanMonths) {
+        if (olderThanMonths != null && olderThanMonths < 0) {
+            return ResponseEntity.badRequest().body("olderThanMonths must not be negative.");
+        }
+        logger.info("Received request to cleanup clinic activity logs (older than {} months).", olderThanMonths != null ? olderThanMonths : "all");
         try {
+            if (olderThanMonths != null) {
+                String result = dataService.cleanupActivityLogsOlderThan(olderThanMonths);
+                return ResponseEntity.ok("Successfully cleaned up clinic activity logs older than " + olderThanMonths + " months: " + result + ".");
+            }
             dataService.cleanupActivityLogs();
             return ResponseEntity.ok("Successfully cleaned up all clinic activity logs.");
         } catch (Exception e) {
@@ -133,43 +214,98 @@ public class ClinicActivityController implements InitializingBean {
     }
 
 	@PostMapping("/recreate-and-populate-logs")
-	public ResponseEntity<String> recreateAndPopulateLogs(@RequestParam(name = "count", defaultValue = "6000000") int count) {
-		logger.info("Received request to recreate and populate {} clinic activity logs.", count);
+	public ResponseEntity<String> recreateAndPopulateLogs(@RequestParam(name = "count", defaultValue = "6000000") int count,
+														  @RequestParam(name = "workers", required = false) Integer workers,
+														  @RequestParam(name = "format", defaultValue = "csv") String format,
+														  @RequestParam(name = "generator", required = false) String generator,
+														  @RequestParam(name = "seed", required = false) Long seed,
+														  @RequestParam(name = "partitioned", defaultValue = "false") boolean partitioned) {
+		logger.info("Received request to recreate and populate {} clinic activity logs (partitioned: {}).", count, partitioned);
 		if (count <= 0) {
 			return ResponseEntity.badRequest().body("Count must be a positive integer.");
 		}
+		if (workers != null && workers <= 0) {
+			return ResponseEntity.badRequest().body("Workers must be a positive integer.");
+		}
+		LoadOptions options;
 		try {
-			// Drop the table
-			jdbcTemplate.execute("DROP TABLE IF EXISTS clinic_activity_logs");
-			logger.info("Table 'clinic_activity_logs' dropped successfully.");
-
-			// Recreate the table
-			String createTableSql = "CREATE TABLE clinic_activity_logs (" +
-				"id SERIAL PRIMARY KEY," +
-				"activity_type VARCHAR(255)," +
-				"numeric_value INTEGER," +
-				"event_timestamp TIMESTAMP," +
-				"status_flag BOOLEAN," +
-				"payload TEXT" +
-				")";
-			jdbcTemplate.execute(createTableSql);
-			logger.info("Table 'clinic_activity_logs' created successfully.");
-
-			// Populate data
-			dataService.populateData(count);
-			return ResponseEntity.ok("Successfully recreated and initiated population of " + count + " clinic activity logs.");
-		} catch (Exception e) {
-			logger.error("Error during clinic activity log recreation and population", e);
-			return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body("Error during data recreation and population: " + e.getMessage());
+			options = new LoadOptions(workers != null ? workers : 0, CopyFormat.of(format), generator, seed);
+		} catch (IllegalArgumentException e) {
+			return ResponseEntity.badRequest().body(e.getMessage());
+		}
+		Job job = jobService.submit("recreate-and-populate-logs", count, progress -> {
+			if (partitioned) {
+				partitionManager.recreatePartitioned();
+			} else {
+				recreateTable();
+			}
+			counters.reset();
+			PopulationReport report = dataService.populateData(count, options, progress);
+			return "Successfully recreated and populated " + count + " clinic activity logs: " + report + "." + provisionIndexesIfEnabled();
+		});
+		return JobController.accepted(job, "Recreation and population of " + count + " clinic activity logs");
+	}
+
+	@GetMapping("/index-advisor")
+	public List<ClinicActivityIndexAdvisor.QueryPlan> explainQueryShapes() {
+		return indexAdvisor.explain();
+	}
+
+	@PostMapping("/index-advisor/provision")
+	public ResponseEntity<String> provisionIndexes() {
+		Job job = jobService.submit("provision-indexes", ClinicActivityIndexAdvisor.QUERY_SHAPES.size(),
+			progress -> describe(indexAdvisor.provisionIndexes(progress)));
+		return JobController.accepted(job, "Index provisioning for clinic_activity_logs");
+	}
+
+	// Indexes are built only once the load has committed; building them first would slow the load down
+	private String provisionIndexesIfEnabled() {
+		if (!indexAdvisor.isEnabled()) {
+			return "";
 		}
+		return " " + describe(indexAdvisor.provisionIndexes(JobProgress.NONE));
 	}
 
+	private static String describe(List<ClinicActivityIndexAdvisor.IndexAdvice> advice) {
+		StringBuilder sb = new StringBuilder("Index advisor:");
+		for (ClinicActivityIndexAdvisor.IndexAdvice a : advice) {
+			sb.append(' ').append(a.indexName()).append(" for ").append(a.source())
+				.append(a.built() ? " built in " + a.buildMillis() + " ms" : " already present")
+				.append(", plan '").append(a.planBefore().isEmpty() ? "" : a.planBefore().get(0).trim())
+				.append("' -> '").append(a.planAfter().isEmpty() ? "" : a.planAfter().get(0).trim()).append("';");
+		}
+		return sb.toString();
+	}
+
+	private void recreateTable() {
+		// Drop the table
+		jdbcTemplate.execute("DROP TABLE IF EXISTS clinic_activity_logs");
+		logger.info("Table 'clinic_activity_logs' dropped successfully.");
+
+		// Recreate the table
+		String createTableSql = "CREATE TABLE clinic_activity_logs (" +
+			"id SERIAL PRIMARY KEY," +
+			"activity_type VARCHAR(255)," +
+			"numeric_value INTEGER," +
+			"event_timestamp TIMESTAMP," +
+			"status_flag BOOLEAN," +
+			"payload TEXT" +
+			")";
+		jdbcTemplate.execute(createTableSql);
+		logger.info("Table 'clinic_activity_logs' created successfully.");
+	}
+
+	/**
+	 * Starts an open-loop I/O load as a job. Operations arrive at {@code targetOps} per second and run on at
+	 * most {@code threads} connections; cancel it with {@code DELETE /api/jobs/{id}}.
+	 */
 	@PostMapping("/io-intensive-load")
 	public ResponseEntity<String> createIOIntensiveLoad(@RequestParam(name = "duration", defaultValue = "5") int durationMinutes,
 														@RequestParam(name = "threads", defaultValue = "6") int numThreads,
-														@RequestParam(name = "limit", defaultValue = "400000") int limit) {
-		logger.warn("Received request to create I/O INTENSIVE LOAD for {} minutes with {} threads and {} limit - This will MAX OUT disk I/O operations!",
-					durationMinutes, numThreads, limit);
+														@RequestParam(name = "limit", defaultValue = "400000") int limit,
+														@RequestParam(name = "targetOps", defaultValue = "10") int targetOps) {
+		logger.warn("Received request to create I/O INTENSIVE LOAD for {} minutes at {} ops/sec with {} threads and {} limit.",
+					durationMinutes, targetOps, numThreads, limit);
 		if (durationMinutes <= 0) {
 			return ResponseEntity.badRequest().body("Duration must be a positive integer.");
 		}
@@ -188,13 +324,13 @@ public class ClinicActivityController implements InitializingBean {
 		if (limit > 1000000) {
 			return ResponseEntity.badRequest().body("Limit too high for I/O intensive load - maximum 1,000,000 to prevent excessive resource usage.");
 		}
-		try {
-			dataService.createIOIntensiveLoad(durationMinutes, numThreads, limit);
-			return ResponseEntity.ok("Successfully completed I/O INTENSIVE LOAD for " + durationMinutes + " minutes with " + numThreads + " threads and " + limit + " limit - Disk I/O was maxed out!");
-		} catch (Exception e) {
-			logger.error("Error during I/O intensive load", e);
-			return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body("Error during I/O intensive load: " + e.getMessage());
+		if (targetOps <= 0 || targetOps > 10_000) {
+			return ResponseEntity.badRequest().body("Target ops/sec must be between 1 and 10,000.");
 		}
+		IoLoadEngine.IoLoadSpec spec = new IoLoadEngine.IoLoadSpec(durationMinutes * 60, targetOps, numThreads, limit);
+		Job job = jobService.submitLongRunning("io-intensive-load", spec.expectedOperations(),
+			progress -> "I/O intensive load finished: " + ioLoadEngine.run(spec, progress) + ".");
+		return JobController.accepted(job, "I/O intensive load for " + durationMinutes + " minutes at " + targetOps + " ops/sec");
 	}
 
     private void performObservableOperation(String operationName) {
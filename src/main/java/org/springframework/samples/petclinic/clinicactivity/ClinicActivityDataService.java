@@ -1,12 +1,15 @@
 package org.springframework.samples.petclinic.clinicactivity;
 
-import com.github.javafaker.Faker;
+import com.zaxxer.hikari.HikariDataSource;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Profile;
+import org.springframework.samples.petclinic.jobs.JobProgress;
 import org.springframework.samples.petclinic.model.ClinicActivityLog;
+import org.springframework.samples.petclinic.system.QueryResultCache;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.PlatformTransactionManager;
 import org.springframework.transaction.TransactionDefinition;
@@ -17,21 +20,23 @@ import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.jdbc.datasource.DataSourceUtils;
 import javax.sql.DataSource;
 import java.sql.Connection;
+import java.sql.SQLException;
 import org.postgresql.PGConnection;
-import org.postgresql.copy.CopyManager;
-import java.sql.Timestamp;
+import org.postgresql.copy.CopyIn;
+import java.time.Duration;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
-import java.time.ZoneId;
-import java.time.format.DateTimeFormatter;
+import java.time.YearMonth;
 import java.util.ArrayList;
 import java.util.List;
-import java.util.Locale;
-import java.util.concurrent.TimeUnit;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
-import java.util.Random;
+import java.util.SplittableRandom;
 import java.util.Map;
 import java.util.HashMap;
 
@@ -40,40 +45,72 @@ import java.util.HashMap;
 public class ClinicActivityDataService {
 
     private static final Logger logger = LoggerFactory.getLogger(ClinicActivityDataService.class);
-    private static final int BATCH_SIZE = 1000;
     private static final int COPY_FLUSH_EVERY = 50_000;
+    private static final int MAX_COPY_WORKERS = 8;
 
     private final ClinicActivityLogRepository repository;
     private final JdbcTemplate jdbcTemplate;
     private final DataSource dataSource;
     private final PlatformTransactionManager transactionManager;
+    private final ClinicActivityPartitionManager partitionManager;
+    private final ActivityLogCounters counters;
+    private final QueryResultCache queryCache;
 
     // List of 15 possible activity types
-    private static final List<String> ACTIVITY_TYPES = List.of(
+    static final List<String> ACTIVITY_TYPES = List.of(
             "Patient Check-in", "Patient Check-out", "Appointment Scheduling", "Medical Record Update",
             "Prescription Issuance", "Lab Test Order", "Lab Test Result Review", "Billing Generation",
             "Payment Processing", "Inventory Check", "Staff Shift Start", "Staff Shift End",
             "Emergency Alert", "Consultation Note", "Follow-up Reminder"
     );
-    private final Random random = new Random();
-    private final ExecutorService executorService = Executors.newFixedThreadPool(8);
+    private final ExecutorService executorService = Executors.newFixedThreadPool(MAX_COPY_WORKERS);
+
+    // Number of parallel COPY workers used when a request does not specify one
+    @Value("${app.clinic-activity.populate.workers:4}")
+    private int defaultWorkers;
+
+    // Row generator used when a request does not specify one (faker or synthetic)
+    @Value("${app.clinic-activity.populate.generator:synthetic}")
+    private String defaultGenerator;
+
+    // Rows per JDBC batch and per committed transaction on databases without COPY
+    @Value("${app.clinic-activity.populate.batch-size:1000}")
+    private int batchSize;
+
+    @Value("${app.clinic-activity.populate.commit-every:50000}")
+    private int commitEvery;
+
+    // Loads that may run at once; each gets an equal share of the pool
+    @Value("${app.jobs.max-concurrent:2}")
+    private int maxConcurrentJobs;
+
+    // Pool connections kept free for web requests while loads run
+    @Value("${app.clinic-activity.populate.reserved-connections:2}")
+    private int reservedConnections;
 
     @Autowired
     public ClinicActivityDataService(ClinicActivityLogRepository repository,
                                      @Qualifier("postgresJdbcTemplate") JdbcTemplate jdbcTemplate,
                                      @Qualifier("postgresDataSource") DataSource dataSource,
-                                     @Qualifier("postgresTransactionManager") PlatformTransactionManager transactionManager) {
+                                     @Qualifier("postgresTransactionManager") PlatformTransactionManager transactionManager,
+                                     ClinicActivityPartitionManager partitionManager,
+                                     ActivityLogCounters counters,
+                                     QueryResultCache queryCache) {
         this.repository = repository;
         this.jdbcTemplate = jdbcTemplate;
         this.dataSource = dataSource;
         this.transactionManager = transactionManager;
+        this.partitionManager = partitionManager;
+        this.counters = counters;
+        this.queryCache = queryCache;
     }
 
-    @Transactional
-    public int getActiveLogsRatio(String type) {
-		var all = repository.countLogsByType(type);
-		var active = repository.countActiveLogsByType(type);
-		return active/all;
+    /**
+     * Share of active logs of the given type, answered from the in-memory {@link ActivityLogCounters}
+     * instead of two COUNT queries; 0.0 if there are no logs of that type.
+     */
+    public double getActiveLogsRatio(String type) {
+        return counters.activeRatio(type);
     }
 
     @Transactional
@@ -81,7 +118,13 @@ public class ClinicActivityDataService {
         logger.info("Received request to clean up all clinic activity logs.");
         long startTime = System.currentTimeMillis();
         try {
-            repository.deleteAllInBatch(); // Efficiently delete all entries
+            if (partitionManager.isPartitioned()) {
+                partitionManager.truncateAll(); // Keeps the monthly partitions, empties them all
+            } else {
+                repository.deleteAllInBatch(); // Efficiently delete all entries
+            }
+            counters.resetAfterCommit();
+            queryCache.invalidateOnCompletion(ClinicActivityPartitionManager.TABLE);
             long endTime = System.currentTimeMillis();
             logger.info("Successfully cleaned up all clinic activity logs in {} ms.", (endTime - startTime));
         } catch (Exception e) {
@@ -90,9 +133,59 @@ public class ClinicActivityDataService {
         }
     }
 
+    /**
+     * Removes logs whose event month started more than {@code months} months ago. On the partitioned
+     * layout whole monthly partitions are dropped; otherwise the rows are deleted.
+     *
+     * @return a description of what was removed
+     */
     @Transactional
-    public void populateData(int totalEntries) {
+    public String cleanupActivityLogsOlderThan(int months) {
+        logger.info("Received request to clean up clinic activity logs older than {} months.", months);
+        long startTime = System.currentTimeMillis();
+        try {
+            String result;
+            if (partitionManager.isPartitioned()) {
+                result = "dropped " + partitionManager.dropPartitionsOlderThan(months) + " monthly partitions";
+            } else {
+                LocalDateTime cutoff = YearMonth.now().minusMonths(months).atDay(1).atStartOfDay();
+                result = "deleted " + jdbcTemplate.update("DELETE FROM clinic_activity_logs WHERE event_timestamp < ?", cutoff) + " rows";
+            }
+            counters.invalidateOnCompletion();
+            queryCache.invalidateOnCompletion(ClinicActivityPartitionManager.TABLE);
+            logger.info("Cleaned up clinic activity logs older than {} months in {} ms: {}.", months, (System.currentTimeMillis() - startTime), result);
+            return result;
+        } catch (Exception e) {
+            logger.error("Error during clinic activity log cleanup", e);
+            throw new RuntimeException("Error cleaning up activity logs: " + e.getMessage(), e);
+        }
+    }
+
+    public PopulationReport populateData(int totalEntries) {
+        return populateData(totalEntries, LoadOptions.defaults());
+    }
+
+    public PopulationReport populateData(int totalEntries, LoadOptions options) {
+        return populateData(totalEntries, options, JobProgress.NONE);
+    }
+
+    /**
+     * Populates clinic_activity_logs, reporting written rows to {@code progress} after every
+     * flushed batch and stopping with a {@link CancellationException}
+     * once cancellation is requested.
+     * <p>
+     * Not transactional: every worker commits its own chunks on its own connection, so an outer
+     * transaction would only hold one more pooled connection for the whole load. The worker count is
+     * capped by {@link #maxWorkersPerJob()} so that concurrent loads fit in the connection pool.
+     */
+    public PopulationReport populateData(int totalEntries, LoadOptions options, JobProgress progress) {
+        int workers = options.workers() > 0 ? options.workers() : defaultWorkers;
+        CopyFormat format = options.format();
+        RowSource rows = new RowSource(
+            options.generator() != null ? options.generator() : defaultGenerator,
+            options.seed() != null ? options.seed() : System.nanoTime());
         long startTime = System.currentTimeMillis();
+        int usedWorkers = 1;
         Connection con = null;
         try {
             con = DataSourceUtils.getConnection(dataSource);
@@ -101,12 +194,23 @@ public class ClinicActivityDataService {
             con = null;
 
             if ("PostgreSQL".equalsIgnoreCase(databaseProductName)) {
-                logger.info("Using PostgreSQL COPY for data population of {} entries.", totalEntries);
-                populateDataWithCopyToNewTransaction(totalEntries);
+                usedWorkers = Math.max(1, Math.min(Math.min(workers, maxWorkersPerJob()), totalEntries));
+                if (partitionManager.isPartitioned()) {
+                    usedWorkers = populateDataIntoMonthlyPartitions(totalEntries, usedWorkers, format, rows, progress);
+                } else if (usedWorkers > 1) {
+                    logger.info("Using parallel PostgreSQL {} COPY with {} workers for data population of {} entries.", format, usedWorkers, totalEntries);
+                    populateDataWithParallelCopy(totalEntries, usedWorkers, format, rows, progress);
+                } else {
+                    logger.info("Using PostgreSQL {} COPY for data population of {} entries.", format, totalEntries);
+                    populateDataWithCopyToNewTransaction(totalEntries, format, rows.generatorFor(0), progress);
+                }
             } else {
                 logger.info("Using JDBC batch inserts for data population of {} entries (Database: {}).", totalEntries, databaseProductName);
-                populateDataWithJdbcBatchInNewTransaction(totalEntries);
+                populateDataWithJdbcBatch(totalEntries, rows.generatorFor(0), progress);
             }
+        } catch (CancellationException e) {
+            logger.warn("Data population of {} clinic activity logs was cancelled", totalEntries);
+            throw e;
         } catch (Exception e) {
             logger.error("Error during data population orchestration", e);
             throw new RuntimeException("Error during data population orchestration: " + e.getMessage(), e);
@@ -114,45 +218,45 @@ public class ClinicActivityDataService {
             if (con != null) {
                  DataSourceUtils.releaseConnection(con, dataSource);
             }
+            // Loaders commit in chunks, so even a failed run may have changed the table
+            queryCache.invalidate(ClinicActivityPartitionManager.TABLE);
         }
         long endTime = System.currentTimeMillis();
-        logger.info("Finished data population for {} clinic activity logs in {} ms.", totalEntries, (endTime - startTime));
+        PopulationReport report = new PopulationReport(totalEntries, usedWorkers, endTime - startTime);
+        logger.info("Finished data population for {} clinic activity logs in {} ms with {} worker(s) ({} rows/sec).",
+            totalEntries, report.elapsedMillis(), usedWorkers, Math.round(report.rowsPerSecond()));
+        return report;
+    }
+
+    /**
+     * Workers one load may use: {@link #MAX_COPY_WORKERS}, or less if the pool could not otherwise give
+     * {@code app.jobs.max-concurrent} loads a connection per worker and still keep
+     * {@code reserved-connections} free. With the configured pool of 20, two reserved connections and two
+     * concurrent jobs that is (20 - 2) / 2 = 9, so the cap of 8 applies.
+     */
+    int maxWorkersPerJob() {
+        int poolSize;
+        try {
+            poolSize = dataSource.unwrap(HikariDataSource.class).getMaximumPoolSize();
+        } catch (SQLException e) {
+            // Not a Hikari pool; the limit cannot be read
+            return MAX_COPY_WORKERS;
+        }
+        int perJob = (poolSize - Math.max(0, reservedConnections)) / Math.max(1, maxConcurrentJobs);
+        return Math.max(1, Math.min(MAX_COPY_WORKERS, perJob));
     }
 
-    private void populateDataWithCopyToNewTransaction(int totalEntries) throws Exception {
+    private void populateDataWithCopyToNewTransaction(int totalEntries, CopyFormat format, ActivityRowGenerator generator,
+                                                      JobProgress progress) throws Exception {
         DefaultTransactionDefinition def = new DefaultTransactionDefinition();
         def.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
         TransactionStatus status = transactionManager.getTransaction(def);
         Connection connection = null;
         try {
             connection = DataSourceUtils.getConnection(dataSource);
-            Faker faker = new Faker(new Locale("en-US"));
-            DateTimeFormatter dtf = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
-            StringBuilder sb = new StringBuilder();
-            CopyManager copyManager = connection.unwrap(PGConnection.class).getCopyAPI();
-
-            for (int i = 0; i < totalEntries; i++) {
-                String activityType = ACTIVITY_TYPES.get(random.nextInt(ACTIVITY_TYPES.size()));
-                int numericVal = faker.number().numberBetween(1, 100_000);
-                String ts = dtf.format(LocalDateTime.ofInstant(
-                        faker.date().past(5 * 365, TimeUnit.DAYS).toInstant(), ZoneId.systemDefault()));
-                boolean statusFlag = faker.bool().bool();
-                String payload = String.join(" ", faker.lorem().paragraphs(faker.number().numberBetween(1, 3)));
-
-                sb.append(csv(activityType)).append(',')
-                  .append(numericVal).append(',')
-                  .append(csv(ts)).append(',')
-                  .append(statusFlag).append(',')
-                  .append(csv(payload)).append('\n');
-
-                if ((i + 1) % COPY_FLUSH_EVERY == 0 || (i + 1) == totalEntries) {
-                    copyManager.copyIn("COPY clinic_activity_logs (activity_type, numeric_value, event_timestamp, status_flag, payload) FROM STDIN WITH (FORMAT csv)", new java.io.StringReader(sb.toString()));
-                    sb.setLength(0);
-                    if (logger.isInfoEnabled()){
-                        logger.info("COPY inserted {} / {} clinic activity logs...", (i + 1), totalEntries);
-                    }
-                }
-            }
+            ActivityLogCounters.Delta delta = new ActivityLogCounters.Delta();
+            streamCopy(connection, format, ClinicActivityPartitionManager.TABLE, "COPY", totalEntries, generator, totalEntries, new AtomicInteger(0), new AtomicBoolean(false), progress, delta);
+            counters.applyAfterCommit(delta);
             transactionManager.commit(status);
         } catch (Exception e) {
             if (!status.isCompleted()) {
@@ -167,149 +271,262 @@ public class ClinicActivityDataService {
         }
     }
 
-    private void populateDataWithJdbcBatchInNewTransaction(int totalEntries) {
-        DefaultTransactionDefinition def = new DefaultTransactionDefinition();
-        def.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
-        TransactionStatus status = transactionManager.getTransaction(def);
-        try {
-            Faker faker = new Faker(new Locale("en-US"));
-            String sql = "INSERT INTO clinic_activity_logs (activity_type, numeric_value, event_timestamp, status_flag, payload) VALUES (?, ?, ?, ?, ?)";
-            for (int i = 0; i < totalEntries; ) {
-                List<Object[]> batchArgs = new ArrayList<>();
-                for (int j = 0; j < BATCH_SIZE && i < totalEntries; j++, i++) {
-                    String activityType = ACTIVITY_TYPES.get(random.nextInt(ACTIVITY_TYPES.size()));
-                    int numericVal = faker.number().numberBetween(1, 100_000);
-                    Timestamp eventTimestamp = Timestamp.from(
-                        faker.date().past(5 * 365, TimeUnit.DAYS).toInstant().atZone(ZoneId.systemDefault()).toInstant()
-                    );
-                    boolean statusFlag = faker.bool().bool();
-                    String payload = String.join(" ", faker.lorem().paragraphs(faker.number().numberBetween(1, 3)));
-                    batchArgs.add(new Object[]{activityType, numericVal, eventTimestamp, statusFlag, payload});
-                }
-                if (!batchArgs.isEmpty()) {
-                    jdbcTemplate.batchUpdate(sql, batchArgs);
-                     if (logger.isInfoEnabled()) {
-                        logger.info("JDBC batch inserted {} / {} clinic activity logs...", i, totalEntries);
-                     }
-                }
-            }
-            transactionManager.commit(status);
-        } catch (Exception e) {
-            if (!status.isCompleted()) {
-                transactionManager.rollback(status);
-            }
-            logger.error("Error during JDBC batch population with new transaction", e);
-            throw new RuntimeException("Error during JDBC batch population with new transaction: " + e.getMessage(), e);
+    /**
+     * Splits the requested row count into one partition per worker. Each worker generates its
+     * rows with its own seeded generator and streams them through COPY on a dedicated pooled connection,
+     * committing its partition independently. A failing worker aborts the remaining ones at
+     * their next flush; partitions that already committed are kept.
+     */
+    private void populateDataWithParallelCopy(int totalEntries, int workers, CopyFormat format, RowSource rows,
+                                              JobProgress progress) throws Exception {
+        AtomicInteger copiedRows = new AtomicInteger(0);
+        AtomicBoolean aborted = new AtomicBoolean(false);
+        List<Future<Integer>> futures = new ArrayList<>(workers);
+
+        int rowsPerWorker = totalEntries / workers;
+        int remainder = totalEntries % workers;
+        for (int w = 0; w < workers; w++) {
+            final int workerId = w;
+            final int workerRows = rowsPerWorker + (w < remainder ? 1 : 0);
+            final ActivityRowGenerator generator = rows.generatorFor(w);
+            futures.add(executorService.submit(() -> copyPartition(workerId, workerRows, format, generator, totalEntries, copiedRows, aborted, progress)));
         }
+        awaitWorkers(futures, totalEntries, copiedRows, aborted);
     }
 
-    private String csv(String value) {
-        if (value == null) {
-            return "";
+    /**
+     * Routes rows straight into the monthly partitions of the partitioned layout. Each month is a unit of
+     * work with its own generator confined to that month and its own seed, so the data does not depend
+     * on the worker count. Workers pull months from a shared cursor, COPY each one into its partition
+     * table (bypassing tuple routing through the parent) and commit it on its own.
+     *
+     * @return the number of workers actually used
+     */
+    private int populateDataIntoMonthlyPartitions(int totalEntries, int workers, CopyFormat format, RowSource rows,
+                                                  JobProgress progress) throws Exception {
+        List<ClinicActivityPartitionManager.MonthPartition> partitions =
+            partitionManager.ensureMonthlyPartitions(rows.from(), rows.to());
+        int[] unitRows = splitRowsByDuration(totalEntries, partitions, rows.from(), rows.to());
+        int usedWorkers = Math.min(workers, partitions.size());
+        logger.info("Using PostgreSQL {} COPY into {} monthly partitions with {} workers for data population of {} entries.",
+            format, partitions.size(), usedWorkers, totalEntries);
+
+        AtomicInteger copiedRows = new AtomicInteger(0);
+        AtomicBoolean aborted = new AtomicBoolean(false);
+        AtomicInteger nextUnit = new AtomicInteger(0);
+        List<Future<Integer>> futures = new ArrayList<>(usedWorkers);
+        for (int w = 0; w < usedWorkers; w++) {
+            futures.add(executorService.submit(() -> {
+                int copied = 0;
+                try (Connection connection = dataSource.getConnection()) {
+                    connection.setAutoCommit(false);
+                    try {
+                        for (int unit = nextUnit.getAndIncrement(); unit < partitions.size(); unit = nextUnit.getAndIncrement()) {
+                            if (unitRows[unit] == 0) {
+                                continue;
+                            }
+                            ClinicActivityPartitionManager.MonthPartition partition = partitions.get(unit);
+                            ActivityRowGenerator generator = rows.generatorForUnit(unit,
+                                max(rows.from(), partition.from()), min(rows.to(), partition.to()));
+                            ActivityLogCounters.Delta delta = new ActivityLogCounters.Delta();
+                            streamCopy(connection, format, partition.tableName(), "COPY " + partition.suffix(), unitRows[unit],
+                                generator, totalEntries, copiedRows, aborted, progress, delta);
+                            counters.commitAndApply(delta, connection::commit);
+                            copied += unitRows[unit];
+                        }
+                        return copied;
+                    } catch (Exception e) {
+                        connection.rollback();
+                        throw e;
+                    } finally {
+                        connection.setAutoCommit(true);
+                    }
+                }
+            }));
         }
-        String escaped = value.replace("\"", "\"\"").replace("\\", "\\\\");
-        return '"' + escaped + '"';
+        awaitWorkers(futures, totalEntries, copiedRows, aborted);
+        return usedWorkers;
     }
 
-    public void createIOIntensiveLoad(int durationMinutes, int numThreads, int limit) {
-        logger.warn("Starting I/O INTENSIVE load test for {} minutes with {} threads and {} limit - This will MAX OUT disk I/O operations!",
-                   durationMinutes, numThreads, limit);
-        long startTime = System.currentTimeMillis();
-        long endTime = startTime + (durationMinutes * 60 * 1000L);
+    /**
+     * Spreads {@code totalEntries} over the partitions in proportion to how much of {@code [from, to)} each covers.
+     */
+    private static int[] splitRowsByDuration(int totalEntries, List<ClinicActivityPartitionManager.MonthPartition> partitions,
+                                             LocalDateTime from, LocalDateTime to) {
+        long totalSeconds = Math.max(1, Duration.between(from, to).getSeconds());
+        int[] unitRows = new int[partitions.size()];
+        int assigned = 0;
+        for (int i = 0; i < unitRows.length; i++) {
+            ClinicActivityPartitionManager.MonthPartition partition = partitions.get(i);
+            long seconds = Duration.between(max(from, partition.from()), min(to, partition.to())).getSeconds();
+            unitRows[i] = (int) (totalEntries * seconds / totalSeconds);
+            assigned += unitRows[i];
+        }
+        for (int i = 0; assigned < totalEntries; i = (i + 1) % unitRows.length, assigned++) {
+            unitRows[i]++;
+        }
+        return unitRows;
+    }
 
-        try {
-            AtomicInteger globalOperationCount = new AtomicInteger(0);
-            List<Thread> threads = new ArrayList<>();
+    private static LocalDateTime max(LocalDateTime a, LocalDateTime b) {
+        return a.isAfter(b) ? a : b;
+    }
 
-            logger.info("Creating {} I/O intensive threads with {} record limit per query...", numThreads, limit);
+    private static LocalDateTime min(LocalDateTime a, LocalDateTime b) {
+        return a.isBefore(b) ? a : b;
+    }
 
-            // Create I/O intensive threads
-            for (int t = 0; t < numThreads; t++) {
-                final int threadId = t;
-                Thread ioThread = new Thread(() -> {
-                    try {
-                        executeIOIntensiveThread(threadId, endTime, globalOperationCount, limit);
-                    } catch (Exception e) {
-                        logger.error("Error in I/O intensive thread {}", threadId, e);
+    /**
+     * Waits for all COPY workers. The first failure aborts the remaining workers at their next flush and is rethrown.
+     * An interrupt (e.g. a cancelled job) aborts them too, but the wait goes on until every worker has stopped, so
+     * none is still streaming rows on a pooled connection once this returns.
+     */
+    private void awaitWorkers(List<Future<Integer>> futures, int totalEntries, AtomicInteger copiedRows,
+                              AtomicBoolean aborted) throws Exception {
+        Exception failure = null;
+        boolean interrupted = false;
+        for (Future<Integer> future : futures) {
+            while (true) {
+                try {
+                    future.get();
+                    break;
+                } catch (ExecutionException e) {
+                    aborted.set(true);
+                    if (failure == null) {
+                        failure = e.getCause() instanceof Exception cause ? cause : e;
                     }
-                });
-
-                ioThread.setName("IOIntensiveThread-" + threadId);
-                threads.add(ioThread);
+                    break;
+                } catch (InterruptedException e) {
+                    // Keep waiting for this worker; the interrupt is restored once all have stopped
+                    interrupted = true;
+                    aborted.set(true);
+                    if (failure == null) {
+                        failure = e;
+                    }
+                }
             }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+        if (failure != null) {
+            logger.error("Parallel COPY data population failed after {} / {} rows", copiedRows.get(), totalEntries, failure);
+            throw failure;
+        }
+    }
 
-            // Start all threads
-            logger.info("Starting all {} I/O intensive threads...", numThreads);
-            for (Thread thread : threads) {
-                thread.start();
+    private int copyPartition(int workerId, int workerRows, CopyFormat format, ActivityRowGenerator generator, int totalEntries,
+                              AtomicInteger copiedRows, AtomicBoolean aborted, JobProgress progress) throws Exception {
+        try (Connection connection = dataSource.getConnection()) {
+            connection.setAutoCommit(false);
+            try {
+                ActivityLogCounters.Delta delta = new ActivityLogCounters.Delta();
+                streamCopy(connection, format, ClinicActivityPartitionManager.TABLE, "COPY worker " + workerId, workerRows, generator, totalEntries, copiedRows, aborted, progress, delta);
+                counters.commitAndApply(delta, connection::commit);
+                return workerRows;
+            } catch (Exception e) {
+                connection.rollback();
+                throw e;
+            } finally {
+                connection.setAutoCommit(true);
             }
+        }
+    }
 
-            // Wait for all threads to complete
-            for (Thread thread : threads) {
-                try {
-                    thread.join();
-                } catch (InterruptedException e) {
-                    Thread.currentThread().interrupt();
-                    logger.warn("Interrupted while waiting for I/O thread: {}", thread.getName());
+    /**
+     * Generates {@code rows} rows and writes them directly into a single COPY stream on the given
+     * connection. Rows are encoded into a fixed-size buffer, so heap usage does not depend on
+     * {@link #COPY_FLUSH_EVERY}, which only controls how often progress is pushed and reported.
+     */
+    private void streamCopy(Connection connection, CopyFormat format, String table, String label, int rows, ActivityRowGenerator generator,
+                            int totalEntries, AtomicInteger copiedRows, AtomicBoolean aborted,
+                            JobProgress progress, ActivityLogCounters.Delta delta) throws Exception {
+        ActivityLogRow row = new ActivityLogRow();
+        CopyIn copyIn = connection.unwrap(PGConnection.class).getCopyAPI().copyIn(format.copySql(table));
+        CopyStreamWriter writer = new CopyStreamWriter(copyIn);
+        try {
+            format.writeHeader(writer);
+            int pending = 0;
+            for (int i = 0; i < rows; i++) {
+                generator.fill(row);
+                format.writeRow(writer, row);
+                delta.add(row);
+                pending++;
+
+                if (pending == COPY_FLUSH_EVERY || (i + 1) == rows) {
+                    progress.checkCancelled();
+                    if (aborted.get()) {
+                        throw new IllegalStateException(label + " aborted because another worker failed");
+                    }
+                    writer.flush();
+                    progress.advance(pending);
+                    int copied = copiedRows.addAndGet(pending);
+                    pending = 0;
+                    if (logger.isInfoEnabled()) {
+                        logger.info("{} streamed {} / {} rows ({} / {} overall)...", label, (i + 1), rows, copied, totalEntries);
+                    }
                 }
             }
+            format.writeTrailer(writer);
+            writer.end();
+        } catch (Exception e) {
+            writer.cancel();
+            throw e;
+        }
+    }
 
-            long actualEndTime = System.currentTimeMillis();
-            logger.warn("Completed I/O INTENSIVE load test in {} ms with {} threads and {} limit. Total operations: {}",
-                (actualEndTime - startTime), numThreads, limit, globalOperationCount.get());
-
+    private void populateDataWithJdbcBatch(int totalEntries, ActivityRowGenerator generator, JobProgress progress) {
+        try {
+            new ActivityLogBatchWriter(jdbcTemplate, transactionManager, batchSize, commitEvery)
+                .write(totalEntries, generator, progress, counters::applyAfterCommit);
+        } catch (CancellationException e) {
+            throw e;
         } catch (Exception e) {
-            logger.error("Error during I/O intensive load test", e);
-            throw new RuntimeException("Error during I/O intensive load test: " + e.getMessage(), e);
+            logger.error("Error during JDBC batch population", e);
+            throw new RuntimeException("Error during JDBC batch population: " + e.getMessage(), e);
         }
     }
 
-    private void executeIOIntensiveThread(int threadId, long endTime, AtomicInteger globalOperationCount, int limit) {
-        Random random = new Random();
-        Faker faker = new Faker(new Locale("en-US"));
-        int localOperationCount = 0;
-
-        logger.info("I/O Thread {} starting I/O intensive operations with {} record limit...", threadId, limit);
-
-        while (System.currentTimeMillis() < endTime) {
-			try {
-                        // LARGE SEQUENTIAL SCAN - Forces full table scan I/O
-                        jdbcTemplate.queryForList(
-                            "SET work_mem = '512MB';" +
-								"SELECT id, activity_type, numeric_value, event_timestamp, payload " +
-                            "FROM clinic_activity_logs " +
-                            "WHERE LENGTH(payload) > 100 " +
-							"ORDER BY random()" +
-                            "LIMIT " + limit);
-
-
-                localOperationCount++;
-                int currentGlobalCount = globalOperationCount.incrementAndGet();
-
-                // Log progress every 100 operations per thread
-                if (localOperationCount % 100 == 0) {
-                    long remainingTime = (endTime - System.currentTimeMillis()) / 1000;
-                    logger.info("I/O Thread {} completed {} operations (Global: {}). Time remaining: {}s",
-                        threadId, localOperationCount, currentGlobalCount, remainingTime);
-                }
+    /**
+     * Hands out one independently seeded generator per worker. Worker seeds are drawn in order
+     * from the base seed, so the same seed and worker count always reproduce the same rows.
+     * Event timestamps cover the five years up to the start of the current day.
+     * The partitioned loader instead asks for one generator per month, seeded from the month index.
+     */
+    private static final class RowSource {
+
+        private final String generator;
+        private final long seed;
+        private final long[] workerSeeds = new long[MAX_COPY_WORKERS];
+        private final LocalDateTime from;
+        private final LocalDateTime to;
+
+        RowSource(String generator, long seed) {
+            this.generator = generator;
+            this.seed = seed;
+            SplittableRandom seeds = new SplittableRandom(seed);
+            for (int i = 0; i < workerSeeds.length; i++) {
+                workerSeeds[i] = seeds.nextLong();
+            }
+            this.to = LocalDate.now().atStartOfDay();
+            this.from = to.minusDays(5 * 365);
+        }
 
-                // No sleep - continuous I/O operations for maximum I/O pressure
-                // But avoid overwhelming the system with a tiny yield
-                if (localOperationCount % 50 == 0) {
-                    Thread.yield();
-                }
+        ActivityRowGenerator generatorFor(int worker) {
+            return ActivityRowGenerator.create(generator, workerSeeds[worker], from, to);
+        }
 
-            } catch (Exception e) {
-                logger.error("Error in I/O operation for thread {}", threadId, e);
-                try {
-                    Thread.sleep(10); // Brief pause on error
-                } catch (InterruptedException ie) {
-                    Thread.currentThread().interrupt();
-                    break;
-                }
-            }
+        ActivityRowGenerator generatorForUnit(int unit, LocalDateTime unitFrom, LocalDateTime unitTo) {
+            long unitSeed = new SplittableRandom(seed + unit * 0x9E3779B97F4A7C15L).nextLong();
+            return ActivityRowGenerator.create(generator, unitSeed, unitFrom, unitTo);
         }
 
-        logger.info("I/O Thread {} completed {} total I/O operations", threadId, localOperationCount);
+        LocalDateTime from() {
+            return from;
+        }
+
+        LocalDateTime to() {
+            return to;
+        }
     }
 }
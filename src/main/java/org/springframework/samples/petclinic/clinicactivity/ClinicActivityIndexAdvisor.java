@@ -0,0 +1,214 @@
+package org.springframework.samples.petclinic.clinicactivity;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.samples.petclinic.jobs.JobProgress;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Maps the query shapes issued against clinic_activity_logs to the indexes that serve them, and builds
+ * any missing ones with {@code CREATE INDEX CONCURRENTLY}. It is meant to run after a bulk load: loading
+ * into a bare table and indexing afterwards is much cheaper than maintaining the indexes row by row.
+ *
+ * <p>Opt-in via {@code app.clinic-activity.index-advisor.enabled}; when enabled the population jobs call
+ * {@link #provisionIndexes(JobProgress)} once their data is committed. Plans are captured with plain {@code EXPLAIN}
+ * (no ANALYZE) before and after, so reporting never executes the queries themselves.
+ */
+@Component
+@Profile({"postgres", "mysql"})
+public class ClinicActivityIndexAdvisor {
+
+    private static final Logger logger = LoggerFactory.getLogger(ClinicActivityIndexAdvisor.class);
+
+    /**
+     * One query shape: where it comes from, the index that serves it and a representative statement to EXPLAIN.
+     */
+    public record QueryShape(String source, String indexName, String indexDefinition, String sampleQuery) {
+    }
+
+    static final List<QueryShape> QUERY_SHAPES = List.of(
+        // Equality on numeric_value, keyset on id: the index also supplies the ORDER BY
+        new QueryShape("ClinicActivityQueryService.queryLogs",
+            "idx_clinic_activity_numeric_value_id",
+            "(numeric_value, id)",
+            "SELECT id, activity_type, event_timestamp, status_flag FROM clinic_activity_logs " +
+                "WHERE numeric_value = 50000 AND id > 0 ORDER BY id LIMIT 1000"),
+        // Equality columns first, then the timestamp range; numeric_value is filtered from the index entry.
+        // The leading activity_type column also turns countLogsByType into an index-only scan.
+        new QueryShape("ClinicActivityLogRepository.findByComplexCriteria",
+            "idx_clinic_activity_type_status_time",
+            "(activity_type, status_flag, event_timestamp, numeric_value)",
+            "SELECT * FROM clinic_activity_logs WHERE activity_type = 'Lab Test Order' " +
+                "AND numeric_value >= 1000 AND numeric_value <= 50000 " +
+                "AND event_timestamp >= now() - interval '30 days' AND event_timestamp < now() " +
+                "AND status_flag = true"),
+        new QueryShape("ClinicActivityLogRepository.countLogsByType",
+            "idx_clinic_activity_type_status_time",
+            null,
+            "SELECT COUNT(1) FROM clinic_activity_logs WHERE activity_type = 'Lab Test Order'"),
+        // Only "active" rows are ever counted this way, so a partial index stays tiny
+        new QueryShape("ClinicActivityLogRepository.countActiveLogsByType",
+            "idx_clinic_activity_active_type",
+            "(activity_type) WHERE numeric_value > 99999",
+            "SELECT COUNT(1) FROM clinic_activity_logs WHERE activity_type = 'Lab Test Order' " +
+                "AND numeric_value > 99999")
+    );
+
+    /**
+     * Outcome of provisioning for one query shape.
+     *
+     * @param built whether the index was created by this run (as opposed to already existing)
+     */
+    public record IndexAdvice(String source, String indexName, boolean built, long buildMillis,
+                              List<String> planBefore, List<String> planAfter) {
+    }
+
+    /**
+     * Current plan for one query shape.
+     *
+     * @param indexState {@code valid}, {@code invalid} or {@code missing}
+     */
+    public record QueryPlan(String source, String indexName, String indexState, List<String> plan) {
+    }
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ClinicActivityPartitionManager partitionManager;
+
+    @Value("${app.clinic-activity.index-advisor.enabled:false}")
+    private boolean enabled;
+
+    public ClinicActivityIndexAdvisor(@Qualifier("postgresJdbcTemplate") JdbcTemplate jdbcTemplate,
+                                      ClinicActivityPartitionManager partitionManager) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.partitionManager = partitionManager;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Current plan of every known query shape and whether its index is present.
+     */
+    public List<QueryPlan> explain() {
+        List<QueryPlan> plans = new ArrayList<>();
+        for (QueryShape shape : QUERY_SHAPES) {
+            plans.add(new QueryPlan(shape.source(), shape.indexName(), indexState(shape.indexName()),
+                explain(shape.sampleQuery())));
+        }
+        return plans;
+    }
+
+    /**
+     * Builds every missing index concurrently, refreshes statistics and reports plans before and after.
+     * Must not be called inside a transaction: {@code CREATE INDEX CONCURRENTLY} requires autocommit.
+     */
+    public List<IndexAdvice> provisionIndexes(JobProgress progress) {
+        List<List<String>> before = new ArrayList<>();
+        for (QueryShape shape : QUERY_SHAPES) {
+            before.add(explain(shape.sampleQuery()));
+        }
+
+        List<Long> buildMillis = new ArrayList<>();
+        for (QueryShape shape : QUERY_SHAPES) {
+            progress.checkCancelled();
+            buildMillis.add(shape.indexDefinition() != null ? buildIndex(shape) : -1L);
+            progress.advance(1);
+        }
+        jdbcTemplate.execute("ANALYZE clinic_activity_logs");
+
+        List<IndexAdvice> advice = new ArrayList<>();
+        for (int i = 0; i < QUERY_SHAPES.size(); i++) {
+            QueryShape shape = QUERY_SHAPES.get(i);
+            long millis = buildMillis.get(i);
+            advice.add(new IndexAdvice(shape.source(), shape.indexName(), millis >= 0, Math.max(millis, 0),
+                before.get(i), explain(shape.sampleQuery())));
+        }
+        return advice;
+    }
+
+    /**
+     * @return build time in ms, or -1 if a valid index already existed
+     */
+    private long buildIndex(QueryShape shape) {
+        Boolean valid = findIndexValidity(shape.indexName());
+        if (Boolean.TRUE.equals(valid)) {
+            logger.info("Index {} already exists, skipping.", shape.indexName());
+            return -1;
+        }
+        long startTime = System.currentTimeMillis();
+        if (partitionManager.isPartitioned()) {
+            buildPartitionedIndex(shape);
+            long elapsed = System.currentTimeMillis() - startTime;
+            logger.info("Created partitioned index {} in {} ms.", shape.indexName(), elapsed);
+            return elapsed;
+        }
+        if (valid != null) {
+            // A failed concurrent build leaves an INVALID index behind that IF NOT EXISTS would keep
+            logger.warn("Dropping invalid index {} left by an earlier failed build.", shape.indexName());
+            jdbcTemplate.execute("DROP INDEX CONCURRENTLY IF EXISTS " + shape.indexName());
+        }
+        jdbcTemplate.execute("CREATE INDEX CONCURRENTLY IF NOT EXISTS " + shape.indexName() +
+            " ON clinic_activity_logs " + shape.indexDefinition());
+        long elapsed = System.currentTimeMillis() - startTime;
+        logger.info("Created index {} in {} ms.", shape.indexName(), elapsed);
+        return elapsed;
+    }
+
+    /**
+     * CONCURRENTLY is not supported on a partitioned table, so the parent index is created (invalid) on the
+     * parent only, each partition gets its own concurrently built index, and attaching the last one makes
+     * the parent index valid. Re-running picks up where a failed run stopped: a partition index left INVALID
+     * by a failed concurrent build is dropped and rebuilt, since IF NOT EXISTS would keep it and it cannot be
+     * attached.
+     */
+    private void buildPartitionedIndex(QueryShape shape) {
+        jdbcTemplate.execute("CREATE INDEX IF NOT EXISTS " + shape.indexName() +
+            " ON ONLY " + ClinicActivityPartitionManager.TABLE + " " + shape.indexDefinition());
+        for (String suffix : partitionManager.partitionSuffixes()) {
+            String partitionIndex = shape.indexName() + "_" + suffix;
+            String partition = ClinicActivityPartitionManager.TABLE + "_" + suffix;
+            if (Boolean.FALSE.equals(findIndexValidity(partition, partitionIndex))) {
+                logger.warn("Dropping invalid index {} left by an earlier failed build.", partitionIndex);
+                jdbcTemplate.execute("DROP INDEX CONCURRENTLY IF EXISTS " + partitionIndex);
+            }
+            jdbcTemplate.execute("CREATE INDEX CONCURRENTLY IF NOT EXISTS " + partitionIndex +
+                " ON " + partition + " " + shape.indexDefinition());
+            jdbcTemplate.execute("ALTER INDEX " + shape.indexName() + " ATTACH PARTITION " + partitionIndex);
+        }
+    }
+
+    private String indexState(String indexName) {
+        Boolean valid = findIndexValidity(indexName);
+        if (valid == null) {
+            return "missing";
+        }
+        return valid ? "valid" : "invalid";
+    }
+
+    /**
+     * @return {@code null} if the index does not exist, otherwise whether it is usable
+     */
+    private Boolean findIndexValidity(String indexName) {
+        return findIndexValidity(ClinicActivityPartitionManager.TABLE, indexName);
+    }
+
+    private Boolean findIndexValidity(String table, String indexName) {
+        List<Boolean> result = jdbcTemplate.queryForList(
+            "SELECT i.indisvalid FROM pg_index i JOIN pg_class c ON c.oid = i.indexrelid " +
+                "WHERE c.relname = ? AND i.indrelid = ?::regclass",
+            Boolean.class, indexName, table);
+        return result.isEmpty() ? null : result.get(0);
+    }
+
+    private List<String> explain(String sql) {
+        return jdbcTemplate.queryForList("EXPLAIN " + sql, String.class);
+    }
+}
@@ -2,12 +2,16 @@ package org.springframework.samples.petclinic.clinicactivity;
 
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.samples.petclinic.model.ClinicActivityLog;
 import org.springframework.stereotype.Repository;
 
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.stream.Stream;
 
 @Repository
 public interface ClinicActivityLogRepository extends JpaRepository<ClinicActivityLog, Integer> {
@@ -25,6 +29,28 @@ public interface ClinicActivityLogRepository extends JpaRepository<ClinicActivit
         @Param("statusFlag") Boolean statusFlag
     );
 
+    /**
+     * Same criteria as {@link #findByComplexCriteria}, read through a server-side cursor instead of
+     * being loaded at once. Must be consumed (and closed) inside a transaction; the entities are read-only.
+     */
+    @Query("SELECT cal FROM ClinicActivityLog cal WHERE cal.activityType = :activityType " +
+           "AND cal.numericValue >= :minNumericValue AND cal.numericValue <= :maxNumericValue " +
+           "AND cal.eventTimestamp >= :startDate AND cal.eventTimestamp < :endDate " +
+           "AND cal.statusFlag = :statusFlag")
+    @QueryHints({
+        @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"),
+        @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"),
+        @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "false")
+    })
+    Stream<ClinicActivityLog> streamByComplexCriteria(
+        @Param("activityType") String activityType,
+        @Param("minNumericValue") Integer minNumericValue,
+        @Param("maxNumericValue") Integer maxNumericValue,
+        @Param("startDate") LocalDateTime startDate,
+        @Param("endDate") LocalDateTime endDate,
+        @Param("statusFlag") Boolean statusFlag
+    );
+
     @Query("SELECT COUNT(1) FROM ClinicActivityLog cal WHERE cal.activityType = :activityType ")
     int countLogsByType(
         @Param("activityType") String activityType);
@@ -0,0 +1,148 @@
+package org.springframework.samples.petclinic.clinicactivity;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.context.annotation.Profile;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Manages the optional monthly range-partitioned layout of clinic_activity_logs on PostgreSQL.
+ * <p>
+ * The partitioned parent is keyed by {@code (id, event_timestamp)} (the partition key has to be part of
+ * the primary key) and has one child per month named {@code clinic_activity_logs_yYYYYmMM}, plus a
+ * default partition for rows outside the provisioned months. Queries with an event_timestamp range,
+ * such as {@link ClinicActivityLogRepository#findByComplexCriteria}, only scan the matching months, and
+ * old data is removed by dropping whole partitions instead of deleting rows.
+ */
+@Component
+@Profile({"postgres", "mysql"})
+public class ClinicActivityPartitionManager {
+
+    private static final Logger logger = LoggerFactory.getLogger(ClinicActivityPartitionManager.class);
+
+    static final String TABLE = "clinic_activity_logs";
+    static final String DEFAULT_PARTITION_SUFFIX = "default";
+
+    private static final Pattern MONTH_SUFFIX = Pattern.compile("y(\\d{4})m(\\d{2})");
+
+    /**
+     * One monthly partition covering {@code [from, to)}.
+     */
+    public record MonthPartition(YearMonth month, String suffix, String tableName, LocalDateTime from, LocalDateTime to) {
+
+        static MonthPartition of(YearMonth month) {
+            String suffix = String.format("y%04dm%02d", month.getYear(), month.getMonthValue());
+            return new MonthPartition(month, suffix, TABLE + "_" + suffix,
+                month.atDay(1).atStartOfDay(), month.plusMonths(1).atDay(1).atStartOfDay());
+        }
+    }
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public ClinicActivityPartitionManager(@Qualifier("postgresJdbcTemplate") JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Whether clinic_activity_logs currently exists as a partitioned table.
+     */
+    public boolean isPartitioned() {
+        Integer count = jdbcTemplate.queryForObject(
+            "SELECT COUNT(*) FROM pg_class WHERE relname = ? AND relkind = 'p' AND pg_table_is_visible(oid)",
+            Integer.class, TABLE);
+        return count != null && count > 0;
+    }
+
+    /**
+     * Drops clinic_activity_logs and recreates it as a partitioned parent with only the default partition;
+     * monthly partitions are added by {@link #ensureMonthlyPartitions} as data is loaded.
+     */
+    public void recreatePartitioned() {
+        jdbcTemplate.execute("DROP TABLE IF EXISTS " + TABLE + " CASCADE");
+        logger.info("Table '{}' dropped successfully.", TABLE);
+
+        jdbcTemplate.execute("CREATE TABLE " + TABLE + " (" +
+            "id SERIAL," +
+            "activity_type VARCHAR(255)," +
+            "numeric_value INTEGER," +
+            "event_timestamp TIMESTAMP NOT NULL," +
+            "status_flag BOOLEAN," +
+            "payload TEXT," +
+            "PRIMARY KEY (id, event_timestamp)" +
+            ") PARTITION BY RANGE (event_timestamp)");
+        jdbcTemplate.execute("CREATE TABLE " + TABLE + "_" + DEFAULT_PARTITION_SUFFIX + " PARTITION OF " + TABLE + " DEFAULT");
+        logger.info("Partitioned table '{}' created successfully.", TABLE);
+    }
+
+    /**
+     * Creates any missing monthly partitions for the months overlapping {@code [from, to)} and returns
+     * them in chronological order.
+     */
+    public List<MonthPartition> ensureMonthlyPartitions(LocalDateTime from, LocalDateTime to) {
+        List<MonthPartition> partitions = new ArrayList<>();
+        YearMonth last = YearMonth.from(to.minusNanos(1));
+        for (YearMonth month = YearMonth.from(from); !month.isAfter(last); month = month.plusMonths(1)) {
+            MonthPartition partition = MonthPartition.of(month);
+            jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS " + partition.tableName() + " PARTITION OF " + TABLE +
+                " FOR VALUES FROM ('" + partition.from() + "') TO ('" + partition.to() + "')");
+            partitions.add(partition);
+        }
+        return partitions;
+    }
+
+    /**
+     * Suffixes of all attached partitions (monthly ones and {@value #DEFAULT_PARTITION_SUFFIX}).
+     */
+    public List<String> partitionSuffixes() {
+        return jdbcTemplate.queryForList(
+                "SELECT c.relname FROM pg_inherits i JOIN pg_class c ON c.oid = i.inhrelid " +
+                    "WHERE i.inhparent = ?::regclass ORDER BY c.relname",
+                String.class, TABLE)
+            .stream()
+            .map(name -> name.substring(TABLE.length() + 1))
+            .toList();
+    }
+
+    /**
+     * Drops every monthly partition that ends on or before the start of the month {@code months} months ago.
+     * Rows in the default partition are deleted by the same cutoff.
+     *
+     * @return number of partitions dropped
+     */
+    public int dropPartitionsOlderThan(int months) {
+        LocalDateTime cutoff = YearMonth.now().minusMonths(months).atDay(1).atStartOfDay();
+        int dropped = 0;
+        for (String suffix : partitionSuffixes()) {
+            Matcher matcher = MONTH_SUFFIX.matcher(suffix);
+            if (!matcher.matches()) {
+                continue;
+            }
+            MonthPartition partition = MonthPartition.of(
+                YearMonth.of(Integer.parseInt(matcher.group(1)), Integer.parseInt(matcher.group(2))));
+            if (!partition.to().isAfter(cutoff)) {
+                jdbcTemplate.execute("DROP TABLE IF EXISTS " + partition.tableName());
+                dropped++;
+            }
+        }
+        jdbcTemplate.update("DELETE FROM " + TABLE + "_" + DEFAULT_PARTITION_SUFFIX + " WHERE event_timestamp < ?", cutoff);
+        logger.info("Dropped {} clinic activity log partitions older than {}.", dropped, LocalDate.from(cutoff));
+        return dropped;
+    }
+
+    /**
+     * Empties every partition while keeping the partition layout.
+     */
+    public void truncateAll() {
+        jdbcTemplate.execute("TRUNCATE TABLE " + TABLE);
+    }
+}
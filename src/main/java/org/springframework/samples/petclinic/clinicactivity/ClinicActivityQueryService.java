@@ -0,0 +1,152 @@
+package org.springframework.samples.petclinic.clinicactivity;
+
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.context.annotation.Profile;
+import org.springframework.samples.petclinic.model.ClinicActivityLog;
+import org.springframework.samples.petclinic.system.ExportReader;
+import org.springframework.samples.petclinic.system.NdjsonStreamWriter;
+import org.springframework.samples.petclinic.system.QueryResultCache;
+import org.springframework.samples.petclinic.system.ResultSetJsonStreamer;
+import org.springframework.samples.petclinic.system.StatelessScanner;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.persistence.PersistenceContext;
+import javax.sql.DataSource;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Stream;
+
+/**
+ * Keyset-paginated reads over clinic_activity_logs. Each page is {@code WHERE id > afterId ORDER BY id LIMIT n},
+ * so the cost of a page does not grow with its position, and rows are streamed to the client as JSON
+ * instead of being materialised. Pages are kept in the {@link QueryResultCache}, so repeated lookups
+ * (including {@code repetitions}) only run the query on a miss.
+ */
+@Service
+@Profile({"postgres", "mysql"})
+public class ClinicActivityQueryService {
+
+    public static final int MAX_PAGE_SIZE = 10_000;
+
+    // Same criteria as ClinicActivityLogRepository.findByComplexCriteria
+    private static final String COMPLEX_CRITERIA_HQL =
+        "SELECT cal FROM ClinicActivityLog cal WHERE cal.activityType = :activityType " +
+        "AND cal.numericValue >= :minNumericValue AND cal.numericValue <= :maxNumericValue " +
+        "AND cal.eventTimestamp >= :startDate AND cal.eventTimestamp < :endDate " +
+        "AND cal.statusFlag = :statusFlag";
+
+    // Column projection whitelist, in table order; "id" is always returned since it is the page cursor
+    static final List<String> COLUMNS = List.of(
+        "id", "activity_type", "numeric_value", "event_timestamp", "status_flag", "payload");
+
+    private final DataSource dataSource;
+    private final ResultSetJsonStreamer streamer;
+    private final QueryResultCache cache;
+    private final ClinicActivityLogRepository repository;
+    private final NdjsonStreamWriter ndjsonWriter;
+    private final TransactionTemplate readOnlyTransaction;
+    private final StatelessScanner statelessScanner;
+
+    @PersistenceContext(unitName = "postgres")
+    private EntityManager entityManager;
+
+    public ClinicActivityQueryService(@Qualifier("postgresDataSource") DataSource dataSource,
+                                      ResultSetJsonStreamer streamer, QueryResultCache cache,
+                                      ClinicActivityLogRepository repository, NdjsonStreamWriter ndjsonWriter,
+                                      @Qualifier("postgresTransactionManager") PlatformTransactionManager transactionManager,
+                                      @Qualifier("postgresEntityManagerFactory") EntityManagerFactory entityManagerFactory) {
+        this.dataSource = dataSource;
+        this.streamer = streamer;
+        this.cache = cache;
+        this.repository = repository;
+        this.ndjsonWriter = ndjsonWriter;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.statelessScanner = new StatelessScanner(entityManagerFactory);
+    }
+
+    /**
+     * Returns a body that streams one page of logs with the given numeric value.
+     *
+     * @param afterId only rows with a greater id are returned; pass the last id of the previous page
+     * @param columns columns to return, or empty for all of them
+     * @throws IllegalArgumentException if the page size is out of range or a column is unknown
+     */
+    public StreamingResponseBody queryLogs(int numericValue, long afterId, int pageSize, List<String> columns,
+                                           int repetitions) {
+        if (pageSize <= 0 || pageSize > MAX_PAGE_SIZE) {
+            throw new IllegalArgumentException("Page size must be between 1 and " + MAX_PAGE_SIZE + ".");
+        }
+        if (repetitions <= 0) {
+            throw new IllegalArgumentException("Repetitions must be a positive integer.");
+        }
+        String sql = "SELECT " + String.join(", ", projection(columns)) +
+            " FROM clinic_activity_logs WHERE numeric_value = ? AND id > ? ORDER BY id LIMIT ?";
+        List<Object> args = List.of(numericValue, afterId, pageSize);
+        int fetchSize = Math.min(pageSize, ResultSetJsonStreamer.DEFAULT_FETCH_SIZE);
+        return cache.stream(ClinicActivityPartitionManager.TABLE, sql, args,
+            out -> streamer.stream(dataSource, sql, args, fetchSize, repetitions - 1, out));
+    }
+
+    /**
+     * Returns a body that writes every log matching the {@link ClinicActivityLogRepository#findByComplexCriteria}
+     * criteria as NDJSON, reading them through a cursor in a read-only transaction.
+     */
+    public StreamingResponseBody exportLogs(String activityType, int minNumericValue, int maxNumericValue,
+                                            LocalDateTime startDate, LocalDateTime endDate, boolean statusFlag,
+                                            ExportReader reader) {
+        if (!startDate.isBefore(endDate)) {
+            throw new IllegalArgumentException("startDate must be before endDate.");
+        }
+        if (reader == ExportReader.STATELESS) {
+            Map<String, Object> parameters = Map.of("activityType", activityType, "minNumericValue", minNumericValue,
+                "maxNumericValue", maxNumericValue, "startDate", startDate, "endDate", endDate, "statusFlag", statusFlag);
+            return out -> {
+                try (Stream<ClinicActivityLog> logs = statelessScanner.stream(COMPLEX_CRITERIA_HQL, ClinicActivityLog.class,
+                        parameters, ResultSetJsonStreamer.DEFAULT_FETCH_SIZE)) {
+                    ndjsonWriter.write(logs, out);
+                }
+            };
+        }
+        return out -> readOnlyTransaction.executeWithoutResult(status -> {
+            try (Stream<ClinicActivityLog> logs = repository.streamByComplexCriteria(activityType, minNumericValue,
+                    maxNumericValue, startDate, endDate, statusFlag)) {
+                ndjsonWriter.write(logs, entityManager, out);
+            }
+        });
+    }
+
+    static List<String> projection(List<String> columns) {
+        if (columns == null || columns.isEmpty()) {
+            return COLUMNS;
+        }
+        Set<String> requested = new LinkedHashSet<>();
+        for (String column : columns) {
+            String name = column.trim().toLowerCase(Locale.ROOT);
+            if (name.isEmpty()) {
+                continue;
+            }
+            if (!COLUMNS.contains(name)) {
+                throw new IllegalArgumentException("Unknown column '" + column.trim() + "'. Allowed columns: " + COLUMNS + ".");
+            }
+            requested.add(name);
+        }
+        List<String> projection = new ArrayList<>(COLUMNS.size());
+        for (String column : COLUMNS) {
+            if (column.equals("id") || requested.contains(column)) {
+                projection.add(column);
+            }
+        }
+        return projection;
+    }
+}
@@ -7,7 +7,9 @@ import org.springframework.ui.Model;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.ResponseBody;
 
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 
@@ -15,6 +17,14 @@ import java.util.Map;
 @RequestMapping("/clinic-activity")
 public class ClinicActivityUiController {
 
+    // Upper bound for one DataTables page and for counting filtered rows
+    private static final int MAX_PAGE_LENGTH = 100;
+    private static final int MAX_FILTERED_COUNT = 10_000;
+    // Deepest page reachable by jumping; further pages only by paging forward, which uses the id keyset
+    private static final int MAX_OFFSET = 10_000;
+
+    private static final String COLUMNS = "id, activity_type, event_timestamp, status_flag";
+
     private final JdbcTemplate jdbcTemplate;
 
     @Autowired
@@ -26,4 +36,79 @@ public class ClinicActivityUiController {
     public String showQueryLogsPage() {
         return "clinicactivity/query-logs";
     }
-} 
\ No newline at end of file
+
+    /**
+     * DataTables server-side processing endpoint over the logs with {@code numeric_value = numericValue},
+     * the same rows {@code /api/clinic-activity/query-logs} returns by default, read in id order through
+     * the {@code (numeric_value, id)} index.
+     * <ul>
+     * <li>The page sends {@code afterId}, the last id it shows, when moving to the next page; that page is
+     * read with a keyset condition on id, whatever its depth. Other jumps use OFFSET, and offsets past
+     * {@value #MAX_OFFSET} are rejected with a DataTables error.</li>
+     * <li>The global search matches {@code activity_type} exactly, as an extra filter on the index range.</li>
+     * <li>{@code recordsTotal} and {@code recordsFiltered} stop counting at {@value #MAX_FILTERED_COUNT}; the
+     * page then shows that number as the total.</li>
+     * </ul>
+     */
+    @GetMapping("/query-logs/data")
+    @ResponseBody
+    public DataTablesResponse queryLogsData(@RequestParam(name = "draw", defaultValue = "1") int draw,
+                                            @RequestParam(name = "start", defaultValue = "0") int start,
+                                            @RequestParam(name = "length", defaultValue = "10") int length,
+                                            @RequestParam(name = "order[0][dir]", defaultValue = "asc") String orderDir,
+                                            @RequestParam(name = "search[value]", required = false) String search,
+                                            @RequestParam(name = "numericValue", defaultValue = "50000") int numericValue,
+                                            @RequestParam(name = "afterId", required = false) Long afterId) {
+        int offset = Math.max(start, 0);
+        int limit = length <= 0 ? MAX_PAGE_LENGTH : Math.min(length, MAX_PAGE_LENGTH);
+        boolean descending = "desc".equalsIgnoreCase(orderDir);
+
+        String where = " WHERE numeric_value = ?";
+        List<Object> args = new ArrayList<>();
+        args.add(numericValue);
+        long recordsTotal = countMatching(where, args);
+        if (search != null && !search.isBlank()) {
+            where += " AND activity_type = ?";
+            args.add(search.trim());
+        }
+        long recordsFiltered = args.size() == 1 ? recordsTotal : countMatching(where, args);
+
+        List<Object> pageArgs = new ArrayList<>(args);
+        String page;
+        if (afterId != null) {
+            page = " AND id " + (descending ? "<" : ">") + " ? ORDER BY id " + (descending ? "DESC" : "ASC") + " LIMIT ?";
+            pageArgs.add(afterId);
+            pageArgs.add(limit);
+        } else if (offset > MAX_OFFSET) {
+            return new DataTablesResponse(draw, recordsTotal, recordsFiltered, List.of(),
+                "Pages past row " + MAX_OFFSET + " can only be reached with Next; search for an activity type to narrow the list.");
+        } else {
+            page = " ORDER BY id " + (descending ? "DESC" : "ASC") + " LIMIT ? OFFSET ?";
+            pageArgs.add(limit);
+            pageArgs.add(offset);
+        }
+        List<Map<String, Object>> data = jdbcTemplate.queryForList(
+            "SELECT " + COLUMNS + " FROM clinic_activity_logs" + where + page, pageArgs.toArray());
+
+        return new DataTablesResponse(draw, recordsTotal, recordsFiltered, data, null);
+    }
+
+    /**
+     * Counts matching rows, stopping at {@link #MAX_FILTERED_COUNT} so a broad filter cannot turn into a full scan.
+     */
+    private long countMatching(String where, List<Object> args) {
+        List<Object> countArgs = new ArrayList<>(args);
+        countArgs.add(MAX_FILTERED_COUNT);
+        Long count = jdbcTemplate.queryForObject(
+            "SELECT COUNT(*) FROM (SELECT 1 FROM clinic_activity_logs" + where + " LIMIT ?) matching",
+            Long.class, countArgs.toArray());
+        return count != null ? count : 0;
+    }
+
+    /**
+     * @param error shown by DataTables instead of the page when set
+     */
+    public record DataTablesResponse(int draw, long recordsTotal, long recordsFiltered, List<Map<String, Object>> data,
+                                     String error) {
+    }
+}
@@ -0,0 +1,79 @@
+package org.springframework.samples.petclinic.clinicactivity;
+
+import java.sql.SQLException;
+import java.util.Locale;
+
+/**
+ * Wire formats supported by the clinic_activity_logs COPY loader.
+ * <p>
+ * {@link #CSV} sends every column as text which the server has to parse again, while
+ * {@link #BINARY} sends ints, booleans and timestamps in PostgreSQL's native binary
+ * representation, skipping text formatting on the client and parsing on the server.
+ */
+public enum CopyFormat {
+
+    CSV("csv") {
+        @Override
+        void writeRow(CopyStreamWriter writer, ActivityLogRow row) throws SQLException {
+            writer.writeCsv(row.activityType).separator()
+                  .write(row.numericValue).separator()
+                  .write(row.eventTimestamp).separator()
+                  .write(row.statusFlag).separator()
+                  .writeCsv(row.payload).endRow();
+        }
+    },
+
+    BINARY("binary") {
+        @Override
+        void writeHeader(CopyStreamWriter writer) throws SQLException {
+            writer.writeBinaryHeader();
+        }
+
+        @Override
+        void writeRow(CopyStreamWriter writer, ActivityLogRow row) throws SQLException {
+            writer.startBinaryTuple(5)
+                  .writeBinary(row.activityType)
+                  .writeBinary(row.numericValue)
+                  .writeBinary(row.eventTimestamp)
+                  .writeBinary(row.statusFlag)
+                  .writeBinary(row.payload);
+        }
+
+        @Override
+        void writeTrailer(CopyStreamWriter writer) throws SQLException {
+            writer.writeBinaryTrailer();
+        }
+    };
+
+    private final String formatOption;
+
+    CopyFormat(String formatOption) {
+        this.formatOption = formatOption;
+    }
+
+    /**
+     * COPY statement targeting the given table, e.g. a single partition of clinic_activity_logs.
+     */
+    String copySql(String table) {
+        return "COPY " + table + " (activity_type, numeric_value, event_timestamp, status_flag, payload) FROM STDIN WITH (FORMAT " + formatOption + ")";
+    }
+
+    void writeHeader(CopyStreamWriter writer) throws SQLException {
+    }
+
+    abstract void writeRow(CopyStreamWriter writer, ActivityLogRow row) throws SQLException;
+
+    void writeTrailer(CopyStreamWriter writer) throws SQLException {
+    }
+
+    /**
+     * Resolves a request parameter such as {@code csv} or {@code binary}.
+     */
+    public static CopyFormat of(String name) {
+        try {
+            return valueOf(name.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Unsupported COPY format '" + name + "', expected csv or binary", e);
+        }
+    }
+}
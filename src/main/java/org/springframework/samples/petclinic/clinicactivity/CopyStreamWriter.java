@@ -0,0 +1,319 @@
+package org.springframework.samples.petclinic.clinicactivity;
+
+import org.postgresql.copy.CopyIn;
+
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+
+/**
+ * Writes COPY rows straight into a PostgreSQL {@link CopyIn} stream through a single reusable
+ * byte buffer, so memory use stays constant no matter how many rows are streamed.
+ * Characters are UTF-8 encoded in place; no intermediate Strings or readers are created.
+ * Supports both the CSV text format and the binary COPY format.
+ */
+final class CopyStreamWriter {
+
+    private static final int DEFAULT_BUFFER_SIZE = 64 * 1024;
+    private static final int MIN_BUFFER_SIZE = 32;
+
+    // "PGCOPY\n\377\r\n\0" followed by a zero flags field and a zero header extension length
+    private static final byte[] BINARY_HEADER = {
+        'P', 'G', 'C', 'O', 'P', 'Y', '\n', (byte) 0xFF, '\r', '\n', 0,
+        0, 0, 0, 0,
+        0, 0, 0, 0
+    };
+    // Seconds between the Unix epoch and the PostgreSQL epoch (2000-01-01 00:00:00)
+    private static final long POSTGRES_EPOCH_SECONDS = 946_684_800L;
+
+    private final CopyIn copyIn;
+    private final byte[] buffer;
+    private int position;
+
+    CopyStreamWriter(CopyIn copyIn) {
+        this(copyIn, DEFAULT_BUFFER_SIZE);
+    }
+
+    CopyStreamWriter(CopyIn copyIn, int bufferSize) {
+        this.copyIn = copyIn;
+        this.buffer = new byte[Math.max(bufferSize, MIN_BUFFER_SIZE)];
+    }
+
+    /**
+     * Writes a value as a quoted CSV field, doubling embedded quotes.
+     */
+    CopyStreamWriter writeCsv(String value) throws SQLException {
+        if (value == null) {
+            return this;
+        }
+        writeByte('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"') {
+                writeByte('"');
+                writeByte('"');
+            } else if (c < 0x80) {
+                writeByte(c);
+            } else {
+                i = writeNonAscii(value, i);
+            }
+        }
+        writeByte('"');
+        return this;
+    }
+
+    CopyStreamWriter write(int value) throws SQLException {
+        if (value == Integer.MIN_VALUE) {
+            return writeAscii(Integer.toString(value));
+        }
+        if (value < 0) {
+            writeByte('-');
+            value = -value;
+        }
+        ensureCapacity(10);
+        int start = position;
+        do {
+            buffer[position++] = (byte) ('0' + value % 10);
+            value /= 10;
+        } while (value != 0);
+        reverse(start, position - 1);
+        return this;
+    }
+
+    CopyStreamWriter write(boolean value) throws SQLException {
+        return writeAscii(value ? "true" : "false");
+    }
+
+    /**
+     * Writes a timestamp in the {@code yyyy-MM-dd HH:mm:ss} form PostgreSQL parses for TIMESTAMP columns.
+     */
+    CopyStreamWriter write(LocalDateTime value) throws SQLException {
+        ensureCapacity(19);
+        writeDigits(value.getYear(), 4);
+        buffer[position++] = '-';
+        writeDigits(value.getMonthValue(), 2);
+        buffer[position++] = '-';
+        writeDigits(value.getDayOfMonth(), 2);
+        buffer[position++] = ' ';
+        writeDigits(value.getHour(), 2);
+        buffer[position++] = ':';
+        writeDigits(value.getMinute(), 2);
+        buffer[position++] = ':';
+        writeDigits(value.getSecond(), 2);
+        return this;
+    }
+
+    CopyStreamWriter separator() throws SQLException {
+        writeByte(',');
+        return this;
+    }
+
+    CopyStreamWriter endRow() throws SQLException {
+        writeByte('\n');
+        return this;
+    }
+
+    void writeBinaryHeader() throws SQLException {
+        ensureCapacity(BINARY_HEADER.length);
+        System.arraycopy(BINARY_HEADER, 0, buffer, position, BINARY_HEADER.length);
+        position += BINARY_HEADER.length;
+    }
+
+    CopyStreamWriter startBinaryTuple(int fieldCount) throws SQLException {
+        ensureCapacity(2);
+        writeShortUnchecked(fieldCount);
+        return this;
+    }
+
+    /**
+     * Writes a varchar/text field: a length word followed by the UTF-8 bytes, or -1 for NULL.
+     */
+    CopyStreamWriter writeBinary(String value) throws SQLException {
+        ensureCapacity(4);
+        if (value == null) {
+            writeIntUnchecked(-1);
+            return this;
+        }
+        writeIntUnchecked(utf8Length(value));
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c < 0x80) {
+                writeByte(c);
+            } else {
+                i = writeNonAscii(value, i);
+            }
+        }
+        return this;
+    }
+
+    CopyStreamWriter writeBinary(int value) throws SQLException {
+        ensureCapacity(8);
+        writeIntUnchecked(4);
+        writeIntUnchecked(value);
+        return this;
+    }
+
+    CopyStreamWriter writeBinary(boolean value) throws SQLException {
+        ensureCapacity(5);
+        writeIntUnchecked(1);
+        buffer[position++] = (byte) (value ? 1 : 0);
+        return this;
+    }
+
+    /**
+     * Writes a TIMESTAMP (without time zone) as microseconds since the PostgreSQL epoch.
+     */
+    CopyStreamWriter writeBinary(LocalDateTime value) throws SQLException {
+        ensureCapacity(12);
+        if (value == null) {
+            writeIntUnchecked(-1);
+            return this;
+        }
+        long micros = (value.toEpochSecond(ZoneOffset.UTC) - POSTGRES_EPOCH_SECONDS) * 1_000_000L
+            + value.getNano() / 1_000;
+        writeIntUnchecked(8);
+        writeIntUnchecked((int) (micros >>> 32));
+        writeIntUnchecked((int) micros);
+        return this;
+    }
+
+    void writeBinaryTrailer() throws SQLException {
+        ensureCapacity(2);
+        writeShortUnchecked(-1);
+    }
+
+    /**
+     * Hands everything buffered so far to the server.
+     */
+    void flush() throws SQLException {
+        if (position > 0) {
+            copyIn.writeToCopy(buffer, 0, position);
+            position = 0;
+        }
+        copyIn.flushCopy();
+    }
+
+    /**
+     * Flushes the remaining bytes and completes the COPY, returning the server's row count.
+     */
+    long end() throws SQLException {
+        if (position > 0) {
+            copyIn.writeToCopy(buffer, 0, position);
+            position = 0;
+        }
+        return copyIn.endCopy();
+    }
+
+    /**
+     * Aborts the COPY if it is still in progress; used on the error path.
+     */
+    void cancel() {
+        try {
+            if (copyIn.isActive()) {
+                copyIn.cancelCopy();
+            }
+        } catch (SQLException e) {
+            // the surrounding transaction is rolled back anyway
+        }
+        position = 0;
+    }
+
+    private CopyStreamWriter writeAscii(String value) throws SQLException {
+        ensureCapacity(value.length());
+        for (int i = 0; i < value.length(); i++) {
+            buffer[position++] = (byte) value.charAt(i);
+        }
+        return this;
+    }
+
+    private int writeNonAscii(String value, int index) throws SQLException {
+        char c = value.charAt(index);
+        ensureCapacity(4);
+        if (c < 0x800) {
+            buffer[position++] = (byte) (0xC0 | (c >> 6));
+            buffer[position++] = (byte) (0x80 | (c & 0x3F));
+        } else if (Character.isHighSurrogate(c) && index + 1 < value.length()
+                && Character.isLowSurrogate(value.charAt(index + 1))) {
+            int codePoint = Character.toCodePoint(c, value.charAt(index + 1));
+            buffer[position++] = (byte) (0xF0 | (codePoint >> 18));
+            buffer[position++] = (byte) (0x80 | ((codePoint >> 12) & 0x3F));
+            buffer[position++] = (byte) (0x80 | ((codePoint >> 6) & 0x3F));
+            buffer[position++] = (byte) (0x80 | (codePoint & 0x3F));
+            return index + 1;
+        } else if (Character.isSurrogate(c)) {
+            buffer[position++] = '?';
+        } else {
+            buffer[position++] = (byte) (0xE0 | (c >> 12));
+            buffer[position++] = (byte) (0x80 | ((c >> 6) & 0x3F));
+            buffer[position++] = (byte) (0x80 | (c & 0x3F));
+        }
+        return index;
+    }
+
+    private static int utf8Length(String value) {
+        int length = 0;
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c < 0x80) {
+                length++;
+            } else if (c < 0x800) {
+                length += 2;
+            } else if (Character.isHighSurrogate(c) && i + 1 < value.length()
+                    && Character.isLowSurrogate(value.charAt(i + 1))) {
+                length += 4;
+                i++;
+            } else if (Character.isSurrogate(c)) {
+                length++;
+            } else {
+                length += 3;
+            }
+        }
+        return length;
+    }
+
+    private void writeIntUnchecked(int value) {
+        buffer[position++] = (byte) (value >>> 24);
+        buffer[position++] = (byte) (value >>> 16);
+        buffer[position++] = (byte) (value >>> 8);
+        buffer[position++] = (byte) value;
+    }
+
+    private void writeShortUnchecked(int value) {
+        buffer[position++] = (byte) (value >>> 8);
+        buffer[position++] = (byte) value;
+    }
+
+    private void writeDigits(int value, int width) {
+        for (int i = position + width - 1; i >= position; i--) {
+            buffer[i] = (byte) ('0' + value % 10);
+            value /= 10;
+        }
+        position += width;
+    }
+
+    private void writeByte(int b) throws SQLException {
+        if (position == buffer.length) {
+            drain();
+        }
+        buffer[position++] = (byte) b;
+    }
+
+    private void ensureCapacity(int bytes) throws SQLException {
+        if (position + bytes > buffer.length) {
+            drain();
+        }
+    }
+
+    private void drain() throws SQLException {
+        copyIn.writeToCopy(buffer, 0, position);
+        position = 0;
+    }
+
+    private void reverse(int from, int to) {
+        while (from < to) {
+            byte tmp = buffer[from];
+            buffer[from++] = buffer[to];
+            buffer[to--] = tmp;
+        }
+    }
+}
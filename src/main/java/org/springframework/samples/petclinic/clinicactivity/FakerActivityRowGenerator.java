@@ -0,0 +1,37 @@
+package org.springframework.samples.petclinic.clinicactivity;
+
+import com.github.javafaker.Faker;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Date;
+import java.util.Locale;
+import java.util.Random;
+
+/**
+ * Original Faker based row generator: realistic but expensive, since every row formats fresh
+ * lorem paragraphs and dates.
+ */
+final class FakerActivityRowGenerator implements ActivityRowGenerator {
+
+    private final Random random;
+    private final Faker faker;
+    private final Date from;
+    private final Date to;
+
+    FakerActivityRowGenerator(long seed, LocalDateTime from, LocalDateTime to) {
+        this.random = new Random(seed);
+        this.faker = new Faker(new Locale("en-US"), random);
+        this.from = Date.from(from.atZone(ZoneId.systemDefault()).toInstant());
+        this.to = Date.from(to.atZone(ZoneId.systemDefault()).toInstant());
+    }
+
+    @Override
+    public void fill(ActivityLogRow row) {
+        row.activityType = ClinicActivityDataService.ACTIVITY_TYPES.get(random.nextInt(ClinicActivityDataService.ACTIVITY_TYPES.size()));
+        row.numericValue = faker.number().numberBetween(1, 100_000);
+        row.eventTimestamp = LocalDateTime.ofInstant(faker.date().between(from, to).toInstant(), ZoneId.systemDefault());
+        row.statusFlag = faker.bool().bool();
+        row.payload = String.join(" ", faker.lorem().paragraphs(faker.number().numberBetween(1, 3)));
+    }
+}
@@ -0,0 +1,302 @@
+package org.springframework.samples.petclinic.clinicactivity;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.context.annotation.Profile;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.samples.petclinic.jobs.JobProgress;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Open-loop I/O load generator for clinic_activity_logs.
+ * <p>
+ * Operations are issued on a fixed schedule derived from the target rate, independent of how fast
+ * earlier ones complete, and run on a bounded pool. When the pool and its queue are saturated the
+ * arrival is counted as missed instead of blocking the schedule. Response time is measured from the
+ * scheduled start, so queueing delay is included (no coordinated omission); service time is measured
+ * from when the query actually started. Rows are consumed through a streaming cursor and discarded, so
+ * memory use does not depend on the row limit.
+ */
+@Component
+@Profile({"postgres", "mysql"})
+public class IoLoadEngine {
+
+    private static final Logger logger = LoggerFactory.getLogger(IoLoadEngine.class);
+
+    private static final int FETCH_SIZE = 1000;
+    private static final int QUEUED_OPERATIONS_PER_THREAD = 2;
+    // How long a cancelled or interrupted run waits for in-flight operations before reporting without them
+    private static final long TERMINATION_TIMEOUT_SECONDS = 10;
+
+    // Full scan plus a top-N sort on random(): every operation reads the whole heap
+    private static final String IO_QUERY =
+        "SELECT id, activity_type, numeric_value, event_timestamp, payload " +
+        "FROM clinic_activity_logs WHERE LENGTH(payload) > 100 ORDER BY random() LIMIT ?";
+
+    /**
+     * @param targetOpsPerSecond arrival rate of operations
+     * @param threads maximum number of operations in flight
+     * @param limit rows returned (and streamed) per operation
+     */
+    public record IoLoadSpec(int durationSeconds, int targetOpsPerSecond, int threads, int limit) {
+
+        long expectedOperations() {
+            return (long) durationSeconds * targetOpsPerSecond;
+        }
+    }
+
+    /**
+     * Latency percentiles in milliseconds.
+     */
+    public record LatencySummary(long count, double mean, double p50, double p90, double p99, double p999, double max) {
+
+        static LatencySummary of(LatencyHistogram histogram) {
+            return new LatencySummary(histogram.count(), millis(Math.round(histogram.mean())),
+                millis(histogram.valueAtPercentile(50)), millis(histogram.valueAtPercentile(90)),
+                millis(histogram.valueAtPercentile(99)), millis(histogram.valueAtPercentile(99.9)),
+                millis(histogram.max()));
+        }
+
+        private static double millis(long micros) {
+            return Math.round(micros / 100.0) / 10.0;
+        }
+    }
+
+    public record IoLoadReport(IoLoadSpec spec, long scheduled, long completed, long failed, long missed,
+                               long rowsRead, long bytesRead, long elapsedMillis, boolean cancelled, boolean partial,
+                               LatencySummary responseTime, LatencySummary serviceTime) {
+
+        public double achievedOpsPerSecond() {
+            return elapsedMillis == 0 ? 0 : completed * 1000.0 / elapsedMillis;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%d/%d operations completed (%d failed, %d missed) in %d ms at %.1f ops/sec; " +
+                    "%d rows, %d payload bytes read; response time p50 %.1f ms, p99 %.1f ms, max %.1f ms; " +
+                    "service time p50 %.1f ms, p99 %.1f ms",
+                completed, scheduled, failed, missed, elapsedMillis, achievedOpsPerSecond(), rowsRead, bytesRead,
+                responseTime.p50(), responseTime.p99(), responseTime.max(), serviceTime.p50(), serviceTime.p99())
+                + (partial ? " (partial: some operations were still running and are not included)" : "");
+        }
+    }
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate readOnlyTransaction;
+
+    public IoLoadEngine(@Qualifier("postgresDataSource") DataSource dataSource) {
+        // Own template and transaction manager: the fetch size only streams inside a non-autocommit transaction
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.jdbcTemplate.setFetchSize(FETCH_SIZE);
+        this.readOnlyTransaction = new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+        this.readOnlyTransaction.setReadOnly(true);
+    }
+
+    /**
+     * Runs the load until the duration elapses or {@code progress} is cancelled, reporting every finished
+     * operation to {@code progress}. Cancellation stops the schedule and cancels in-flight statements.
+     */
+    public IoLoadReport run(IoLoadSpec spec, JobProgress progress) {
+        Run run = new Run(spec, progress);
+        logger.warn("Starting I/O load: {} ops/sec for {} s on up to {} threads with {} row limit.",
+            spec.targetOpsPerSecond(), spec.durationSeconds(), spec.threads(), spec.limit());
+        IoLoadReport report = run.execute();
+        logger.warn("Finished I/O load: {}", report);
+        return report;
+    }
+
+    private final class Run {
+
+        private final IoLoadSpec spec;
+        private final JobProgress progress;
+        private final ThreadPoolExecutor pool;
+        private final List<LatencyHistogram[]> threadHistograms = new CopyOnWriteArrayList<>();
+        // [0] response time, [1] service time; one pair per pool thread
+        private final ThreadLocal<LatencyHistogram[]> histograms = ThreadLocal.withInitial(() -> {
+            LatencyHistogram[] pair = {new LatencyHistogram(), new LatencyHistogram()};
+            threadHistograms.add(pair);
+            return pair;
+        });
+        private final Set<Statement> inFlight = ConcurrentHashMap.newKeySet();
+        private final LongAdder completed = new LongAdder();
+        private final LongAdder failed = new LongAdder();
+        private final LongAdder rowsRead = new LongAdder();
+        private final LongAdder bytesRead = new LongAdder();
+        private long scheduled;
+        private long missed;
+
+        Run(IoLoadSpec spec, JobProgress progress) {
+            this.spec = spec;
+            this.progress = progress;
+            AtomicInteger threadIds = new AtomicInteger();
+            this.pool = new ThreadPoolExecutor(spec.threads(), spec.threads(), 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(spec.threads() * QUEUED_OPERATIONS_PER_THREAD),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "io-load-" + threadIds.getAndIncrement());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+        }
+
+        IoLoadReport execute() {
+            long periodNanos = Math.max(1, 1_000_000_000L / spec.targetOpsPerSecond());
+            long start = System.nanoTime();
+            long end = start + TimeUnit.SECONDS.toNanos(spec.durationSeconds());
+            boolean terminated;
+            try {
+                for (long i = 0; !progress.isCancelled(); i++) {
+                    long intendedStart = start + i * periodNanos;
+                    if (intendedStart >= end) {
+                        break;
+                    }
+                    long wait;
+                    while ((wait = intendedStart - System.nanoTime()) > 0 && !progress.isCancelled()) {
+                        LockSupport.parkNanos(wait);
+                    }
+                    scheduled++;
+                    try {
+                        pool.execute(() -> operation(intendedStart));
+                    } catch (RejectedExecutionException e) {
+                        missed++;
+                    }
+                }
+            } finally {
+                pool.shutdown();
+                terminated = awaitPool();
+            }
+
+            LatencyHistogram responseTime = new LatencyHistogram();
+            LatencyHistogram serviceTime = new LatencyHistogram();
+            for (LatencyHistogram[] pair : threadHistograms) {
+                responseTime.add(pair[0]);
+                serviceTime.add(pair[1]);
+            }
+            long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+            return new IoLoadReport(spec, scheduled, completed.sum(), failed.sum(), missed, rowsRead.sum(), bytesRead.sum(),
+                elapsedMillis, progress.isCancelled(), !terminated,
+                LatencySummary.of(responseTime), LatencySummary.of(serviceTime));
+        }
+
+        /**
+         * Waits for the scheduled operations to finish. Once cancelled or interrupted, in-flight statements
+         * are cancelled and the pool gets {@link #TERMINATION_TIMEOUT_SECONDS} to stop, so the histograms
+         * are not merged while its threads still record into them.
+         *
+         * @return {@code false} if operations were still running when it gave up
+         */
+        private boolean awaitPool() {
+            try {
+                while (!pool.awaitTermination(1, TimeUnit.SECONDS)) {
+                    if (progress.isCancelled()) {
+                        return stopPool();
+                    }
+                }
+                return true;
+            } catch (InterruptedException e) {
+                boolean terminated = stopPool();
+                Thread.currentThread().interrupt();
+                return terminated;
+            }
+        }
+
+        private boolean stopPool() {
+            cancelInFlight();
+            pool.shutdownNow();
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(TERMINATION_TIMEOUT_SECONDS);
+            boolean interrupted = false;
+            try {
+                while (true) {
+                    try {
+                        return pool.awaitTermination(deadline - System.nanoTime(), TimeUnit.NANOSECONDS);
+                    } catch (InterruptedException e) {
+                        interrupted = true;
+                    }
+                }
+            } finally {
+                if (interrupted) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        }
+
+        private void operation(long intendedStart) {
+            if (progress.isCancelled()) {
+                return;
+            }
+            long actualStart = System.nanoTime();
+            long[] rows = new long[2];
+            try {
+                readOnlyTransaction.executeWithoutResult(status -> {
+                    jdbcTemplate.execute("SET LOCAL work_mem = '512MB'");
+                    jdbcTemplate.query(con -> {
+                        PreparedStatement ps = con.prepareStatement(IO_QUERY);
+                        ps.setInt(1, spec.limit());
+                        inFlight.add(ps);
+                        return ps;
+                    }, (RowCallbackHandler) rs -> {
+                        // Touch every column so the row is really transferred, then drop it
+                        rs.getInt(1);
+                        rs.getString(2);
+                        rs.getInt(3);
+                        rs.getTimestamp(4);
+                        String payload = rs.getString(5);
+                        rows[0]++;
+                        rows[1] += payload != null ? payload.length() : 0;
+                    });
+                });
+                long finished = System.nanoTime();
+                LatencyHistogram[] pair = histograms.get();
+                pair[0].record(TimeUnit.NANOSECONDS.toMicros(finished - intendedStart));
+                pair[1].record(TimeUnit.NANOSECONDS.toMicros(finished - actualStart));
+                completed.increment();
+                progress.advance(1);
+            } catch (RuntimeException e) {
+                if (!progress.isCancelled()) {
+                    failed.increment();
+                    logger.error("I/O load operation failed on {}", Thread.currentThread().getName(), e);
+                }
+            } finally {
+                inFlight.removeIf(statement -> {
+                    try {
+                        return statement.isClosed();
+                    } catch (SQLException e) {
+                        return true;
+                    }
+                });
+                rowsRead.add(rows[0]);
+                bytesRead.add(rows[1]);
+            }
+        }
+
+        private void cancelInFlight() {
+            for (Statement statement : inFlight) {
+                try {
+                    statement.cancel();
+                } catch (SQLException e) {
+                    // statement already finished
+                }
+            }
+        }
+    }
+}
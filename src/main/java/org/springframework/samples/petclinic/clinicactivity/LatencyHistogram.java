@@ -0,0 +1,90 @@
+package org.springframework.samples.petclinic.clinicactivity;
+
+/**
+ * Fixed-size log-linear latency histogram in the style of HdrHistogram: values below 64 are counted
+ * exactly, larger ones in 32 linear sub-buckets per power of two, so every recorded value is kept to
+ * within about 3% regardless of magnitude and recording is a couple of shifts and an array increment.
+ * <p>
+ * Not thread-safe. Each load thread records into its own instance; instances are merged once the
+ * threads are done.
+ */
+final class LatencyHistogram {
+
+    private static final int SUB_BUCKET_BITS = 5;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    private static final int EXACT_LIMIT = 2 * SUB_BUCKETS;
+    // Values up to 2^40 microseconds (about 12 days) are tracked; anything larger is clamped
+    private static final int MAX_MAGNITUDE = 40;
+    private static final long MAX_VALUE = (1L << MAX_MAGNITUDE) - 1;
+
+    private final long[] counts = new long[EXACT_LIMIT + (MAX_MAGNITUDE - SUB_BUCKET_BITS - 1) * SUB_BUCKETS];
+    private long totalCount;
+    private long sum;
+    private long max;
+
+    void record(long value) {
+        long v = Math.min(Math.max(value, 0), MAX_VALUE);
+        counts[indexOf(v)]++;
+        totalCount++;
+        sum += v;
+        if (v > max) {
+            max = v;
+        }
+    }
+
+    void add(LatencyHistogram other) {
+        for (int i = 0; i < counts.length; i++) {
+            counts[i] += other.counts[i];
+        }
+        totalCount += other.totalCount;
+        sum += other.sum;
+        max = Math.max(max, other.max);
+    }
+
+    long count() {
+        return totalCount;
+    }
+
+    long max() {
+        return max;
+    }
+
+    double mean() {
+        return totalCount == 0 ? 0 : (double) sum / totalCount;
+    }
+
+    /**
+     * Smallest bucket upper bound below which at least {@code percentile} percent of the values fall.
+     */
+    long valueAtPercentile(double percentile) {
+        if (totalCount == 0) {
+            return 0;
+        }
+        long target = Math.max(1, (long) Math.ceil(totalCount * Math.min(percentile, 100.0) / 100.0));
+        long seen = 0;
+        for (int i = 0; i < counts.length; i++) {
+            seen += counts[i];
+            if (seen >= target) {
+                return Math.min(highestValueAt(i), max);
+            }
+        }
+        return max;
+    }
+
+    static int indexOf(long value) {
+        if (value < EXACT_LIMIT) {
+            return (int) value;
+        }
+        int shift = (63 - Long.numberOfLeadingZeros(value)) - SUB_BUCKET_BITS;
+        return EXACT_LIMIT + (shift - 1) * SUB_BUCKETS + (int) ((value >>> shift) - SUB_BUCKETS);
+    }
+
+    static long highestValueAt(int index) {
+        if (index < EXACT_LIMIT) {
+            return index;
+        }
+        int shift = (index - EXACT_LIMIT) / SUB_BUCKETS + 1;
+        long subBucket = (index - EXACT_LIMIT) % SUB_BUCKETS + SUB_BUCKETS;
+        return ((subBucket + 1) << shift) - 1;
+    }
+}
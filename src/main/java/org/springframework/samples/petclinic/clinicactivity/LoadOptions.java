@@ -0,0 +1,22 @@
+package org.springframework.samples.petclinic.clinicactivity;
+
+/**
+ * Per-request tuning for a clinic activity log population run.
+ *
+ * @param workers number of parallel COPY workers, or {@code 0} to use the configured default
+ * @param format COPY wire format used on PostgreSQL
+ * @param generator row generator kind ({@code faker} or {@code synthetic}), or {@code null} for the configured default
+ * @param seed base seed for reproducible data, or {@code null} for a random one
+ */
+public record LoadOptions(int workers, CopyFormat format, String generator, Long seed) {
+
+    public LoadOptions {
+        if (generator != null) {
+            generator = ActivityRowGenerator.normalize(generator);
+        }
+    }
+
+    public static LoadOptions defaults() {
+        return new LoadOptions(0, CopyFormat.CSV, null, null);
+    }
+}
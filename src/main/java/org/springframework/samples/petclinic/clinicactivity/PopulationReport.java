@@ -0,0 +1,18 @@
+package org.springframework.samples.petclinic.clinicactivity;
+
+/**
+ * Summary of a clinic activity log population run: how many rows were written, by how many
+ * parallel workers and how long it took.
+ */
+public record PopulationReport(long rows, int workers, long elapsedMillis) {
+
+    public double rowsPerSecond() {
+        return elapsedMillis > 0 ? rows * 1000.0 / elapsedMillis : rows;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%d rows in %d ms using %d worker(s) (%d rows/sec)",
+            rows, elapsedMillis, workers, Math.round(rowsPerSecond()));
+    }
+}
@@ -0,0 +1,27 @@
+package org.springframework.samples.petclinic.clinicfeedback;
+
+import org.springframework.samples.petclinic.model.ClinicFeedback;
+
+import java.util.List;
+
+/**
+ * Outcome of saving many feedbacks: every request is attempted, failures are counted rather than
+ * aborting the run.
+ *
+ * @param errors the first few failure messages
+ * @param retryable feedbacks that failed for a reason that may pass on a later attempt (I/O errors, timeouts, 5xx, 408, 429)
+ * @param rejected feedbacks FlaskDB refused for good (any other non-2xx status) or that could not be serialized
+ */
+public record BulkSaveResult(int saved, int failed, long elapsedMillis, List<String> errors,
+							 List<ClinicFeedback> retryable, List<ClinicFeedback> rejected) {
+
+	public boolean hasFailures() {
+		return failed > 0;
+	}
+
+	@Override
+	public String toString() {
+		return String.format("%d feedbacks saved, %d failed in %d ms%s", saved, failed, elapsedMillis,
+			errors.isEmpty() ? "" : "; first errors: " + String.join("; ", errors));
+	}
+}
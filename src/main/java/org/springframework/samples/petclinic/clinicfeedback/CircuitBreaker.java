@@ -0,0 +1,77 @@
+package org.springframework.samples.petclinic.clinicfeedback;
+
+import java.time.Duration;
+
+/**
+ * Minimal consecutive-failure circuit breaker. After {@code failureThreshold} failures in a row the
+ * circuit opens and calls are rejected immediately for {@code openDuration}; then a single trial call
+ * is let through (half-open), whose outcome closes the circuit again or re-opens it.
+ */
+final class CircuitBreaker {
+
+	enum State { CLOSED, OPEN, HALF_OPEN }
+
+	private final int failureThreshold;
+	private final long openNanos;
+
+	private State state = State.CLOSED;
+	private int consecutiveFailures;
+	private long openedAt;
+	private boolean trialInFlight;
+
+	CircuitBreaker(int failureThreshold, Duration openDuration) {
+		this.failureThreshold = Math.max(1, failureThreshold);
+		this.openNanos = openDuration.toNanos();
+	}
+
+	/**
+	 * @return whether a call may proceed; every permitted call must be followed by {@link #onSuccess()},
+	 * {@link #onFailure()} or {@link #onCancelled()}
+	 */
+	synchronized boolean tryAcquire() {
+		switch (state) {
+			case CLOSED:
+				return true;
+			case OPEN:
+				if (System.nanoTime() - openedAt < openNanos) {
+					return false;
+				}
+				state = State.HALF_OPEN;
+				trialInFlight = true;
+				return true;
+			default:
+				if (trialInFlight) {
+					return false;
+				}
+				trialInFlight = true;
+				return true;
+		}
+	}
+
+	synchronized void onSuccess() {
+		consecutiveFailures = 0;
+		trialInFlight = false;
+		state = State.CLOSED;
+	}
+
+	synchronized void onFailure() {
+		trialInFlight = false;
+		consecutiveFailures++;
+		if (state == State.HALF_OPEN || consecutiveFailures >= failureThreshold) {
+			state = State.OPEN;
+			openedAt = System.nanoTime();
+		}
+	}
+
+	/**
+	 * The permitted call was abandoned by its caller (e.g. interrupted) before it had an outcome. It counts
+	 * neither way, but frees the half-open trial slot so another call can take it.
+	 */
+	synchronized void onCancelled() {
+		trialInFlight = false;
+	}
+
+	synchronized State state() {
+		return state;
+	}
+}
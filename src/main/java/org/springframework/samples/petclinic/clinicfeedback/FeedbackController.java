@@ -1,32 +1,57 @@
 package org.springframework.samples.petclinic.clinicfeedback;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
 import io.opentelemetry.api.trace.Span;
 import jakarta.validation.Valid;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.samples.petclinic.model.ClinicFeedback;
 import org.springframework.samples.petclinic.owner.Owner;
 import org.springframework.validation.BindingResult;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
-import java.util.List;
+import java.util.Iterator;
+import java.util.stream.Stream;
 
 @RestController
 @RequestMapping("/api/clinic-feedback")
 public class FeedbackController {
 
 	private final FeedbackService service;
+	private final ObjectMapper objectMapper;
 
-	public FeedbackController(FeedbackService service) {
+	public FeedbackController(FeedbackService service, ObjectMapper objectMapper) {
 		this.service = service;
+		// Without FLUSH_AFTER_WRITE_VALUE the generator's buffer decides when to flush
+		this.objectMapper = objectMapper.copy().disable(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
 	}
 
+	/**
+	 * Relays one page as a JSON array, writing each feedback as soon as it is decoded, so large pages are
+	 * never held in memory. FlaskDB is contacted before the response starts, so its errors still map to a status.
+	 */
 	@GetMapping()
-	public List<ClinicFeedback> list(
+	public ResponseEntity<StreamingResponseBody> list(
 		@RequestParam(name = "page", defaultValue = "0") int page,
 		@RequestParam(name = "pageSize", defaultValue = "10") int pageSize
 	) {
-		var results = service.list(page, pageSize);
-		return results;
+		Stream<ClinicFeedback> results = service.stream(page, pageSize);
+		StreamingResponseBody body = out -> {
+			try (results; JsonGenerator json = objectMapper.getFactory().createGenerator(out)) {
+				// Leave the response stream open; the container closes it
+				json.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+				json.writeStartArray();
+				for (Iterator<ClinicFeedback> it = results.iterator(); it.hasNext(); ) {
+					objectMapper.writeValue(json, it.next());
+				}
+				json.writeEndArray();
+			}
+		};
+		return ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON).body(body);
 	}
 
 	@GetMapping("count")
@@ -34,6 +59,11 @@ public class FeedbackController {
 		return String.valueOf(service.count());
 	}
 
+	@GetMapping("write-behind")
+	public FeedbackWriteBehindBuffer.Stats writeBehindStats() {
+		return service.writeBehindStats();
+	}
+
 	@PostMapping("clear")
 	public String clear() {
 		var deleted = service.clear();
@@ -43,8 +73,14 @@ public class FeedbackController {
 	@PostMapping("populate")
 	public ResponseEntity<String> populateFeedbacks(@RequestParam(name = "count", defaultValue = "10000") int count) {
 		try{
-			service.populate(count);
-			return ResponseEntity.ok("Populated");
+			var result = service.populate(count);
+			if (result.hasFailures()) {
+				return ResponseEntity.internalServerError().body("Populated partially: " + result);
+			}
+			return ResponseEntity.ok("Populated: " + result);
+		}
+		catch (FlaskDbUnavailableException ex){
+			throw ex;
 		}
 		catch (Exception ex){
 			Span.current().recordException(ex);
@@ -58,13 +94,25 @@ public class FeedbackController {
 			return ResponseEntity.badRequest().body("Failed to parsed request");
 
 		try{
-			service.add(newFeedback);
+			if (service.add(newFeedback)) {
+				return ResponseEntity.accepted().body("Queued");
+			}
 			return ResponseEntity.ok("Inserted");
 		}
+		catch (FlaskDbUnavailableException ex){
+			throw ex;
+		}
 		catch (Exception ex){
 			Span.current().recordException(ex);
 			return ResponseEntity.internalServerError().body(ex.getMessage());
 		}
 
 	}
+
+	// FlaskDB rejected the call locally (circuit open or bulkhead full); tell clients to back off
+	@ExceptionHandler(FlaskDbUnavailableException.class)
+	public ResponseEntity<String> flaskDbUnavailable(FlaskDbUnavailableException ex) {
+		Span.current().recordException(ex);
+		return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body(ex.getMessage());
+	}
 }
@@ -0,0 +1,97 @@
+package org.springframework.samples.petclinic.clinicfeedback;
+
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.samples.petclinic.model.ClinicFeedback;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Supplier;
+
+/**
+ * Short-lived read-through cache for the hottest FlaskDB reads: the feedback count and the first
+ * {@code pages} pages of the list. Concurrent misses for the same key share one request to FlaskDB,
+ * which runs on the first caller's thread; failed loads are not cached. Anything that changes the
+ * feedbacks must call {@link #invalidate()}; an invalidated entry is never served again, even if its
+ * load was still in flight.
+ */
+@Component
+public class FeedbackReadCache {
+
+	private record PageKey(int page, int pageSize) {
+	}
+
+	private final boolean enabled;
+	private final int cachedPages;
+	private final int maxPageSize;
+	private final AsyncCache<Boolean, Long> count;
+	private final AsyncCache<PageKey, List<ClinicFeedback>> pages;
+
+	public FeedbackReadCache(@Value("${spring.data.flaskdb.cache.enabled:true}") boolean enabled,
+							 @Value("${spring.data.flaskdb.cache.ttl:5s}") Duration ttl,
+							 @Value("${spring.data.flaskdb.cache.pages:1}") int cachedPages,
+							 @Value("${spring.data.flaskdb.cache.max-page-size:100}") int maxPageSize) {
+		this.enabled = enabled;
+		this.cachedPages = cachedPages;
+		this.maxPageSize = maxPageSize;
+		this.count = Caffeine.newBuilder()
+			.maximumSize(1)
+			.expireAfterWrite(ttl)
+			.buildAsync();
+		this.pages = Caffeine.newBuilder()
+			.maximumSize(Math.max(1, cachedPages) * 4L)
+			.expireAfterWrite(ttl)
+			.buildAsync();
+	}
+
+	public long count(Supplier<Long> loader) {
+		return enabled ? get(count, Boolean.TRUE, loader) : loader.get();
+	}
+
+	/**
+	 * Whether {@link #page} caches this page; larger or later pages should be streamed instead.
+	 */
+	public boolean isCached(int page, int pageSize) {
+		return enabled && page < cachedPages && pageSize <= maxPageSize;
+	}
+
+	public List<ClinicFeedback> page(int page, int pageSize, Supplier<List<ClinicFeedback>> loader) {
+		return isCached(page, pageSize) ? get(pages, new PageKey(page, pageSize), loader) : loader.get();
+	}
+
+	public void invalidate() {
+		count.synchronous().invalidateAll();
+		pages.synchronous().invalidateAll();
+	}
+
+	private static <K, V> V get(AsyncCache<K, V> cache, K key, Supplier<V> loader) {
+		CompletableFuture<V> loading = new CompletableFuture<>();
+		CompletableFuture<V> existing = cache.asMap().putIfAbsent(key, loading);
+		if (existing == null) {
+			// This caller loads; a failed future is dropped from the cache automatically. Errors too,
+			// otherwise the placeholder never completes and every later caller blocks on it.
+			try {
+				loading.complete(loader.get());
+			} catch (Throwable e) {
+				loading.completeExceptionally(e);
+				throw e;
+			}
+			return loading.join();
+		}
+		try {
+			return existing.join();
+		} catch (CompletionException e) {
+			if (e.getCause() instanceof RuntimeException cause) {
+				throw cause;
+			}
+			if (e.getCause() instanceof Error cause) {
+				throw cause;
+			}
+			throw e;
+		}
+	}
+}
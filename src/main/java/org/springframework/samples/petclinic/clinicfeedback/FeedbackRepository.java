@@ -1,8 +1,10 @@
 package org.springframework.samples.petclinic.clinicfeedback;
 
-import com.fasterxml.jackson.core.type.TypeReference;
-import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.MappingIterator;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
 import com.fasterxml.jackson.databind.SerializationFeature;
 import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
 import org.springframework.beans.factory.annotation.Value;
@@ -10,47 +12,146 @@ import org.springframework.data.domain.Pageable;
 import org.springframework.samples.petclinic.model.ClinicFeedback;
 import org.springframework.stereotype.Component;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
 import java.net.URI;
-import java.net.http.HttpClient;
 import java.net.http.HttpRequest;
 import java.net.http.HttpResponse;
 import java.util.List;
+import java.util.Queue;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 @Component
 public class FeedbackRepository
 {
-	private final String apiBaseUrl;
-	private final HttpClient httpClient;
+	private static final int MAX_REPORTED_ERRORS = 10;
+	// count and clear answer with a one-field object
+	private static final int MAX_SMALL_BODY_BYTES = 64 * 1024;
+
+	private final FlaskDbClient client;
+	private final URI countUri;
 	private final ObjectMapper objectMapper;
+	// Immutable and thread-safe; built once instead of resolving the type on every read
+	private final ObjectReader feedbackReader;
+
+	// Whether the FlaskDB endpoint accepts a JSON array of feedbacks in one POST
+	@Value("${spring.data.flaskdb.bulk-enabled:false}")
+	private boolean bulkEnabled;
+
+	@Value("${spring.data.flaskdb.bulk-size:500}")
+	private int bulkSize;
 
-	public FeedbackRepository(@Value("${spring.data.flaskdb.uri}") String apiBaseUrl) {
-		this.apiBaseUrl = apiBaseUrl;
-		this.httpClient = HttpClient.newHttpClient();
+	// Upper bound on concurrent requests to FlaskDB during saveMultiple
+	@Value("${spring.data.flaskdb.max-concurrency:32}")
+	private int maxConcurrency;
+
+	public FeedbackRepository(FlaskDbClient client) {
+		this.client = client;
+		this.countUri = client.uri("/count");
 		this.objectMapper = new ObjectMapper();
 		this.objectMapper.registerModule(new JavaTimeModule());
 		this.objectMapper.disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+		this.feedbackReader = objectMapper.readerFor(ClinicFeedback.class);
 	}
 
-	public void saveMultiple(List<ClinicFeedback> feedbacks) {
-		for (ClinicFeedback feedback : feedbacks){
-			HttpResponse<String> response;
-			try {
-				var json = objectMapper.writeValueAsString(feedback);
-				var request = HttpRequest.newBuilder()
-					.uri(URI.create(this.apiBaseUrl))
-					.header("Content-Type", "application/json")
-					.POST(HttpRequest.BodyPublishers.ofString(json))
-					.build();
+	/**
+	 * Saves all feedbacks without waiting for each response in turn. With {@code spring.data.flaskdb.bulk-enabled}
+	 * they are posted as JSON arrays of {@code bulk-size} feedbacks, otherwise one request per feedback.
+	 * Either way at most {@code max-concurrency} requests are in flight, and a failed request is
+	 * recorded in the result instead of stopping the remaining ones. The result lists the feedbacks
+	 * of failed requests, split into those worth retrying and those FlaskDB rejected for good.
+	 */
+	public BulkSaveResult saveMultiple(List<ClinicFeedback> feedbacks) {
+		return save(feedbacks, bulkEnabled);
+	}
 
-				response = httpClient.send(request, HttpResponse.BodyHandlers.ofString());
+	/**
+	 * Like {@link #saveMultiple}, but always one request per feedback, so a rejection applies to that
+	 * feedback alone rather than to every feedback of a bulk array.
+	 */
+	public BulkSaveResult saveEach(List<ClinicFeedback> feedbacks) {
+		return save(feedbacks, false);
+	}
 
-			} catch (Exception e) {
-				throw new RuntimeException("Error during saving feedbacks", e);
-			}
+	/**
+	 * Whether {@link #saveMultiple} posts bulk arrays, whose rejection says nothing about which feedback was bad.
+	 */
+	public boolean isBulkEnabled() {
+		return bulkEnabled;
+	}
 
-			if (response.statusCode() != 200 && response.statusCode() != 201) {
-				throw new RuntimeException("Failed to save feedbacks to flaskdb: " + response.body());
+	private BulkSaveResult save(List<ClinicFeedback> feedbacks, boolean bulk) {
+		long startTime = System.currentTimeMillis();
+		int permits = Math.max(1, maxConcurrency);
+		Semaphore inFlight = new Semaphore(permits);
+		AtomicInteger saved = new AtomicInteger();
+		Queue<String> errors = new ConcurrentLinkedQueue<>();
+		Queue<ClinicFeedback> retryable = new ConcurrentLinkedQueue<>();
+		Queue<ClinicFeedback> rejected = new ConcurrentLinkedQueue<>();
+		int batchSize = bulk ? Math.max(1, bulkSize) : 1;
+		try {
+			for (int from = 0; from < feedbacks.size(); from += batchSize) {
+				List<ClinicFeedback> batch = feedbacks.subList(from, Math.min(from + batchSize, feedbacks.size()));
+				HttpRequest request;
+				try {
+					// A single feedback keeps the original object body; bulk requests send an array
+					String json = bulk ? objectMapper.writeValueAsString(batch) : objectMapper.writeValueAsString(batch.get(0));
+					request = client.request(client.baseUri())
+						.header("Content-Type", "application/json")
+						.POST(HttpRequest.BodyPublishers.ofString(json))
+						.build();
+				} catch (Exception e) {
+					recordFailure(batch, rejected, "Error serializing feedbacks: " + e.getMessage(), errors);
+					continue;
+				}
+				inFlight.acquire();
+				client.sendAsync(request)
+					.whenComplete((response, error) -> {
+						try {
+							if (error != null) {
+								recordFailure(batch, retryable, "Error during saving feedbacks: " + error.getMessage(), errors);
+							} else if (!isSuccess(response.statusCode())) {
+								recordFailure(batch, isRetryable(response.statusCode()) ? retryable : rejected,
+									"Failed to save feedbacks to flaskdb (" + response.statusCode() + "): " + response.body(), errors);
+							} else {
+								saved.addAndGet(batch.size());
+							}
+						} finally {
+							inFlight.release();
+						}
+					});
 			}
+			// All permits back means every request has completed
+			inFlight.acquire(permits);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new RuntimeException("Interrupted while saving feedbacks", e);
+		}
+		return new BulkSaveResult(saved.get(), retryable.size() + rejected.size(), System.currentTimeMillis() - startTime,
+			List.copyOf(errors), List.copyOf(retryable), List.copyOf(rejected));
+	}
+
+	// Any 2xx, e.g. 202 from a FlaskDB that queues writes, means the feedback is taken
+	private static boolean isSuccess(int statusCode) {
+		return statusCode >= 200 && statusCode < 300;
+	}
+
+	// Client errors other than timeout and throttling will fail the same way on every attempt
+	private static boolean isRetryable(int statusCode) {
+		return statusCode >= 500 || statusCode == 408 || statusCode == 429;
+	}
+
+	private static void recordFailure(List<ClinicFeedback> batch, Queue<ClinicFeedback> failures, String message, Queue<String> errors) {
+		failures.addAll(batch);
+		if (errors.size() < MAX_REPORTED_ERRORS) {
+			errors.add(message);
 		}
 	}
 
@@ -58,58 +159,84 @@ public class FeedbackRepository
 		HttpResponse<String> response;
 		try {
 			String json = objectMapper.writeValueAsString(feedback);
-			var request = HttpRequest.newBuilder()
-				.uri(URI.create(this.apiBaseUrl))
+			var request = client.request(client.baseUri())
 				.header("Content-Type", "application/json")
 				.POST(HttpRequest.BodyPublishers.ofString(json))
 				.build();
 
-			response = httpClient.send(request, HttpResponse.BodyHandlers.ofString());
+			response = client.send(request);
+		} catch (FlaskDbUnavailableException e) {
+			throw e;
 		} catch (Exception e) {
 			throw new RuntimeException("Error during saving feedback", e);
 		}
 
-		if (response.statusCode() != 200 && response.statusCode() != 201) {
+		if (!isSuccess(response.statusCode())) {
 			throw new RuntimeException("Failed to save feedback to flaskdb: " + response.body());
 		}
 	}
 
 	public List<ClinicFeedback> findAll(Pageable pageable) {
+		try (Stream<ClinicFeedback> feedbacks = stream(pageable)) {
+			return feedbacks.toList();
+		}
+	}
+
+	/**
+	 * Streams one page of feedbacks, decoding each one as its bytes arrive instead of buffering the
+	 * whole response first. The stream holds the HTTP connection and must be closed; it fails rather
+	 * than hangs if FlaskDB stalls mid-body (see {@link FlaskDbClient#sendStreaming}).
+	 */
+	public Stream<ClinicFeedback> stream(Pageable pageable) {
+		InputStream body = null;
 		try {
-			String url = String.format("%s?page=%d&size=%d", this.apiBaseUrl, pageable.getPageNumber(), pageable.getPageSize());
-			HttpRequest request = HttpRequest.newBuilder()
-				.uri(URI.create(url))
+			HttpRequest request = client.request(client.uri(String.format("?page=%d&size=%d", pageable.getPageNumber(), pageable.getPageSize())))
 				.GET()
 				.build();
 
-			HttpResponse<String> response = httpClient.send(request, HttpResponse.BodyHandlers.ofString());
-			if (response.statusCode() == 200) {
-				return objectMapper.readValue(response.body(), new TypeReference<List<ClinicFeedback>>() {});
-			} else {
+			HttpResponse<InputStream> response = client.sendStreaming(request);
+			body = response.body();
+			if (response.statusCode() != 200) {
 				throw new RuntimeException("Failed to fetch feedbacks. Status: " + response.statusCode());
 			}
+			// Accepts the top-level JSON array and yields its elements one by one
+			MappingIterator<ClinicFeedback> feedbacks = feedbackReader.readValues(body);
+			return StreamSupport.stream(Spliterators.spliteratorUnknownSize(feedbacks, Spliterator.ORDERED | Spliterator.NONNULL), false)
+				.onClose(() -> {
+					try {
+						feedbacks.close();
+					} catch (IOException e) {
+						throw new UncheckedIOException("Error closing feedbacks response: " + e.getMessage(), e);
+					}
+				});
+		} catch (FlaskDbUnavailableException e) {
+			throw e;
 		} catch (Exception e) {
+			closeQuietly(body);
+			if (e instanceof InterruptedException) {
+				Thread.currentThread().interrupt();
+			}
 			throw new RuntimeException("Error during fetching feedbacks", e);
 		}
 	}
 
 	public long count() {
 		try {
-			String url = this.apiBaseUrl + "/count";
-			HttpRequest request = HttpRequest.newBuilder()
-				.uri(URI.create(url))
+			HttpRequest request = client.request(countUri)
 				.GET()
 				.build();
 
-			HttpResponse<String> response = httpClient.send(request, HttpResponse.BodyHandlers.ofString());
-
-			if (response.statusCode() == 200) {
-				// Assuming API returns: { "count": 42 }
-				JsonNode node = objectMapper.readTree(response.body());
-				return node.get("count").asLong();
-			} else {
-				throw new RuntimeException("Failed to fetch count. Status: " + response.statusCode());
+			HttpResponse<InputStream> response = client.sendStreaming(request);
+			try (InputStream body = response.body()) {
+				if (response.statusCode() == 200) {
+					// Assuming API returns: { "count": 42 }
+					return readLongField(FlaskDbClient.readBounded(body, MAX_SMALL_BODY_BYTES), "count");
+				} else {
+					throw new RuntimeException("Failed to fetch count. Status: " + response.statusCode());
+				}
 			}
+		} catch (FlaskDbUnavailableException e) {
+			throw e;
 		} catch (Exception e) {
 			throw new RuntimeException("Error during fetching feedback count", e);
 		}
@@ -117,22 +244,53 @@ public class FeedbackRepository
 
 	public long clear() {
 		try {
-			HttpRequest request = HttpRequest.newBuilder()
-				.uri(URI.create(this.apiBaseUrl))
+			HttpRequest request = client.request(client.baseUri())
 				.DELETE()
 				.build();
 
-			HttpResponse<String> response = httpClient.send(request, HttpResponse.BodyHandlers.ofString());
-
-			if (response.statusCode() == 200) {
-				// Assuming API returns: { "deleted": 42 }
-				JsonNode node = objectMapper.readTree(response.body());
-				return node.get("deleted").asLong();
-			} else {
-				throw new RuntimeException("Failed to clear feedbacks. Status: " + response.statusCode());
+			HttpResponse<InputStream> response = client.sendStreaming(request);
+			try (InputStream body = response.body()) {
+				if (response.statusCode() == 200) {
+					// Assuming API returns: { "deleted": 42 }
+					return readLongField(FlaskDbClient.readBounded(body, MAX_SMALL_BODY_BYTES), "deleted");
+				} else {
+					throw new RuntimeException("Failed to clear feedbacks. Status: " + response.statusCode());
+				}
 			}
+		} catch (FlaskDbUnavailableException e) {
+			throw e;
 		} catch (Exception e) {
 			throw new RuntimeException("Error during fetching feedback count", e);
 		}
 	}
+
+	/**
+	 * Reads a top-level numeric field without building a tree; stops as soon as the field is found.
+	 */
+	private long readLongField(byte[] body, String field) throws IOException {
+		try (JsonParser parser = objectMapper.getFactory().createParser(body)) {
+			if (parser.nextToken() != JsonToken.START_OBJECT) {
+				throw new IOException("Expected a JSON object in the response");
+			}
+			while (parser.nextToken() == JsonToken.FIELD_NAME) {
+				String name = parser.currentName();
+				parser.nextToken();
+				if (field.equals(name)) {
+					return parser.getValueAsLong();
+				}
+				parser.skipChildren();
+			}
+		}
+		throw new IOException("Response has no \"" + field + "\" field");
+	}
+
+	private static void closeQuietly(InputStream body) {
+		if (body != null) {
+			try {
+				body.close();
+			} catch (IOException e) {
+				// connection is discarded anyway
+			}
+		}
+	}
 }
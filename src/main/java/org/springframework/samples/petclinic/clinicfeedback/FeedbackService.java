@@ -9,18 +9,24 @@ import org.springframework.stereotype.Service;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.stream.Stream;
 
 @Service
 public class FeedbackService {
 	private final FeedbackRepository repository;
+	private final FeedbackWriteBehindBuffer writeBehindBuffer;
+	private final FeedbackReadCache readCache;
 	private final Lorem lorem = LoremIpsum.getInstance();
 
-	public FeedbackService(FeedbackRepository repository) {
+	public FeedbackService(FeedbackRepository repository, FeedbackWriteBehindBuffer writeBehindBuffer,
+						   FeedbackReadCache readCache) {
 		this.repository = repository;
+		this.writeBehindBuffer = writeBehindBuffer;
+		this.readCache = readCache;
 	}
 
 	@WithSpan
-	public void populate(int numberOfDocs){
+	public BulkSaveResult populate(int numberOfDocs){
 		var feedbacks = new ArrayList<ClinicFeedback>();
 		for (int i = 0; i < numberOfDocs; i++) {
 			var feedback = new ClinicFeedback(
@@ -29,22 +35,59 @@ public class FeedbackService {
 			);
 			feedbacks.add(feedback);
 		}
-		repository.saveMultiple(feedbacks);
+		try {
+			return repository.saveMultiple(feedbacks);
+		} finally {
+			readCache.invalidate();
+		}
 	}
 
 	public long count() {
-		return repository.count();
+		return readCache.count(repository::count);
 	}
 
 	public long clear() {
-		return repository.clear();
+		try {
+			return repository.clear();
+		} finally {
+			readCache.invalidate();
+		}
 	}
 
 	public List<ClinicFeedback> list(int page, int pageSize) {
-		return repository.findAll(Pageable.ofSize(pageSize).withPage(page));
+		return readCache.page(page, pageSize, () -> repository.findAll(Pageable.ofSize(pageSize).withPage(page)));
+	}
+
+	/**
+	 * Like {@link #list(int, int)}, but yields feedbacks while the response is still arriving; close the stream.
+	 * Cached pages are served from memory.
+	 */
+	public Stream<ClinicFeedback> stream(int page, int pageSize) {
+		if (readCache.isCached(page, pageSize)) {
+			return list(page, pageSize).stream();
+		}
+		return repository.stream(Pageable.ofSize(pageSize).withPage(page));
+	}
+
+	/**
+	 * Queues the feedback for a background save, or saves it right away when buffering is disabled or full.
+	 *
+	 * @return {@code true} if the feedback was queued rather than saved
+	 */
+	public boolean add(ClinicFeedback newFeedback) {
+		if (writeBehindBuffer.offer(newFeedback)) {
+			// The buffer invalidates the read cache again once the feedback is saved
+			return true;
+		}
+		try {
+			repository.saveSingle(newFeedback);
+		} finally {
+			readCache.invalidate();
+		}
+		return false;
 	}
 
-	public void add(ClinicFeedback newFeedback) {
-		repository.saveSingle(newFeedback);
+	public FeedbackWriteBehindBuffer.Stats writeBehindStats() {
+		return writeBehindBuffer.stats();
 	}
 }
@@ -0,0 +1,429 @@
+package org.springframework.samples.petclinic.clinicfeedback;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.opentelemetry.api.GlobalOpenTelemetry;
+import io.opentelemetry.api.metrics.DoubleHistogram;
+import io.opentelemetry.api.metrics.LongCounter;
+import io.opentelemetry.api.metrics.Meter;
+import io.opentelemetry.api.metrics.ObservableLongGauge;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.samples.petclinic.model.ClinicFeedback;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Write-behind buffer for submitted feedbacks: {@link #offer} appends the feedback to an on-disk
+ * journal, queues it and returns, and a background thread sends queued feedbacks to FlaskDB in
+ * batches every {@code flush-interval} or as soon as {@code batch-size} are waiting.
+ * <p>
+ * The journal is an append-only NDJSON file that is truncated only once everything in it has been
+ * saved, so feedbacks accepted before a crash or restart are replayed on the next start. Delivery is
+ * at-least-once, and every feedback carries a client-generated id so duplicates can be recognized.
+ * <p>
+ * Only the feedbacks whose request failed are retried, with exponential backoff between flushes, up to
+ * {@code max-attempts} times. Feedbacks FlaskDB rejects with a client error, or that run out of attempts,
+ * are logged and appended to the {@code dead-letter} NDJSON file instead, so one bad feedback never holds
+ * up the rest of the queue. A rejected bulk request is first resent one feedback at a time, so only the
+ * feedbacks rejected on their own are dead-lettered. When the queue is full {@link #offer} returns {@code false} and the caller
+ * should save synchronously instead.
+ */
+@Component
+public class FeedbackWriteBehindBuffer {
+
+	private static final Logger logger = LoggerFactory.getLogger(FeedbackWriteBehindBuffer.class);
+
+	// Longest pause between flushes while FlaskDB keeps failing
+	private static final Duration MAX_BACKOFF = Duration.ofMinutes(5);
+
+	public record Stats(boolean enabled, int queued, int pendingRetry, long accepted, long rejected, long flushed,
+						long failedFlushes, long deadLettered, double lastFlushMillis, long journalBytes) {
+	}
+
+	/**
+	 * A line of the dead-letter file.
+	 */
+	record DeadLetter(String reason, int attempts, ClinicFeedback feedback) {
+	}
+
+	private static final class Entry {
+
+		final ClinicFeedback feedback;
+		int attempts;
+
+		Entry(ClinicFeedback feedback) {
+			this.feedback = feedback;
+		}
+	}
+
+	private final FeedbackRepository repository;
+	private final FeedbackReadCache readCache;
+	private final ObjectMapper objectMapper;
+	private final boolean enabled;
+	private final int batchSize;
+	private final Duration flushInterval;
+	private final Path journalPath;
+	private final Path deadLetterPath;
+	private final boolean fsync;
+	private final int maxAttempts;
+
+	private final BlockingQueue<ClinicFeedback> queue;
+	// Guards journal appends together with enqueueing, and journal truncation
+	private final Object journalLock = new Object();
+	private final AtomicBoolean flushRequested = new AtomicBoolean();
+	private final ScheduledThreadPoolExecutor flusher;
+	// Drained or recovered feedbacks not yet saved; only touched by the flusher thread
+	private final List<Entry> pending = new ArrayList<>();
+	private volatile int pendingSize;
+	private int consecutiveFailedFlushes;
+	private long retryNotBefore;
+	private FileChannel journal;
+
+	private final AtomicLong accepted = new AtomicLong();
+	private final AtomicLong rejected = new AtomicLong();
+	private final AtomicLong flushed = new AtomicLong();
+	private final AtomicLong failedFlushes = new AtomicLong();
+	private final AtomicLong deadLettered = new AtomicLong();
+	private volatile double lastFlushMillis;
+
+	private final DoubleHistogram flushDuration;
+	private final LongCounter flushedCounter;
+	private final LongCounter deadLetterCounter;
+	private final ObservableLongGauge queueDepthGauge;
+
+	public FeedbackWriteBehindBuffer(FeedbackRepository repository, FeedbackReadCache readCache, ObjectMapper objectMapper,
+									 @Value("${spring.data.flaskdb.write-behind.enabled:true}") boolean enabled,
+									 @Value("${spring.data.flaskdb.write-behind.capacity:10000}") int capacity,
+									 @Value("${spring.data.flaskdb.write-behind.batch-size:500}") int batchSize,
+									 @Value("${spring.data.flaskdb.write-behind.flush-interval:1s}") Duration flushInterval,
+									 @Value("${spring.data.flaskdb.write-behind.journal:${java.io.tmpdir}/petclinic-feedback-journal.ndjson}") String journalPath,
+									 @Value("${spring.data.flaskdb.write-behind.dead-letter:${java.io.tmpdir}/petclinic-feedback-dead-letter.ndjson}") String deadLetterPath,
+									 @Value("${spring.data.flaskdb.write-behind.fsync:false}") boolean fsync,
+									 @Value("${spring.data.flaskdb.write-behind.max-attempts:10}") int maxAttempts) {
+		this.repository = repository;
+		this.readCache = readCache;
+		this.objectMapper = objectMapper;
+		this.enabled = enabled;
+		this.batchSize = Math.max(1, batchSize);
+		this.flushInterval = flushInterval;
+		this.journalPath = Path.of(journalPath);
+		this.deadLetterPath = Path.of(deadLetterPath);
+		this.fsync = fsync;
+		this.maxAttempts = Math.max(1, maxAttempts);
+		this.retryNotBefore = System.nanoTime();
+		this.queue = new ArrayBlockingQueue<>(Math.max(1, capacity));
+		this.flusher = new ScheduledThreadPoolExecutor(1, runnable -> {
+			Thread thread = new Thread(runnable, "feedback-write-behind");
+			thread.setDaemon(true);
+			return thread;
+		});
+
+		Meter meter = GlobalOpenTelemetry.getMeter("petclinic.clinicfeedback");
+		this.flushDuration = meter.histogramBuilder("clinic_feedback.write_behind.flush.duration")
+			.setDescription("Time to send one batch of buffered feedbacks to FlaskDB")
+			.setUnit("ms")
+			.build();
+		this.flushedCounter = meter.counterBuilder("clinic_feedback.write_behind.flushed")
+			.setDescription("Buffered feedbacks saved to FlaskDB")
+			.build();
+		this.deadLetterCounter = meter.counterBuilder("clinic_feedback.write_behind.dead_lettered")
+			.setDescription("Buffered feedbacks given up on and written to the dead-letter file")
+			.build();
+		this.queueDepthGauge = meter.gaugeBuilder("clinic_feedback.write_behind.queue.depth")
+			.ofLongs()
+			.setDescription("Feedbacks accepted but not yet saved to FlaskDB")
+			.buildWithCallback(measurement -> measurement.record(queue.size() + pendingSize));
+	}
+
+	@PostConstruct
+	public void start() throws IOException {
+		if (!enabled) {
+			return;
+		}
+		recoverJournal();
+		for (Path path : List.of(journalPath, deadLetterPath)) {
+			Path parent = path.toAbsolutePath().getParent();
+			if (parent != null) {
+				Files.createDirectories(parent);
+			}
+		}
+		// Not APPEND, which cannot be combined with READ; writes go to the position, kept at the end
+		journal = FileChannel.open(journalPath, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+		journal.position(journal.size());
+		terminateTornLine();
+		long intervalMillis = Math.max(1, flushInterval.toMillis());
+		flusher.scheduleWithFixedDelay(this::flush, intervalMillis, intervalMillis, TimeUnit.MILLISECONDS);
+	}
+
+	public boolean isEnabled() {
+		return enabled;
+	}
+
+	/**
+	 * Journals and queues a feedback for saving in the background.
+	 *
+	 * @return {@code false} if buffering is disabled or the queue is full; the feedback was not accepted
+	 */
+	public boolean offer(ClinicFeedback feedback) {
+		if (!enabled) {
+			return false;
+		}
+		if (feedback.getId() == null) {
+			feedback.setId(UUID.randomUUID().toString());
+		}
+		if (feedback.getSubmittedAt() == null) {
+			feedback.setSubmittedAt(Instant.now());
+		}
+		synchronized (journalLock) {
+			// Only the flusher removes entries concurrently, so the slot checked here stays free
+			if (queue.remainingCapacity() == 0) {
+				rejected.incrementAndGet();
+				return false;
+			}
+			appendToJournal(feedback);
+			queue.add(feedback);
+		}
+		accepted.incrementAndGet();
+		if (queue.size() >= batchSize && flushRequested.compareAndSet(false, true)) {
+			try {
+				flusher.execute(this::flush);
+			} catch (RejectedExecutionException e) {
+				// Shutting down; the feedback is journaled and will be sent on the next start
+			}
+		}
+		return true;
+	}
+
+	public Stats stats() {
+		long journalBytes;
+		try {
+			journalBytes = Files.exists(journalPath) ? Files.size(journalPath) : 0;
+		} catch (IOException e) {
+			journalBytes = -1;
+		}
+		return new Stats(enabled, queue.size(), pendingSize, accepted.get(), rejected.get(), flushed.get(),
+			failedFlushes.get(), deadLettered.get(), lastFlushMillis, journalBytes);
+	}
+
+	void flush() {
+		flushRequested.set(false);
+		if (System.nanoTime() - retryNotBefore < 0) {
+			// Backing off after failures; the scheduled run after the pause picks everything up
+			return;
+		}
+		drain();
+	}
+
+	/**
+	 * Sends everything queued in batches. Saved and dead-lettered feedbacks leave the buffer; if any
+	 * feedback of a batch has to be retried, the remaining ones wait for the next flush after a backoff.
+	 */
+	private void drain() {
+		try {
+			while (true) {
+				if (pending.isEmpty()) {
+					List<ClinicFeedback> drained = new ArrayList<>();
+					queue.drainTo(drained, batchSize);
+					if (drained.isEmpty()) {
+						break;
+					}
+					drained.forEach(feedback -> pending.add(new Entry(feedback)));
+				}
+				List<Entry> batch = pending.subList(0, Math.min(batchSize, pending.size()));
+				pendingSize = pending.size();
+				Map<ClinicFeedback, Entry> entries = new IdentityHashMap<>();
+				batch.forEach(entry -> entries.put(entry.feedback, entry));
+				long start = System.nanoTime();
+				BulkSaveResult result = repository.saveMultiple(batch.stream().map(entry -> entry.feedback).toList());
+				double millis = (System.nanoTime() - start) / 1_000_000.0;
+				lastFlushMillis = millis;
+				flushDuration.record(millis);
+				// Even a failed batch may have saved some feedbacks
+				readCache.invalidate();
+				int saved = result.saved();
+				List<ClinicFeedback> rejectedFeedbacks = result.rejected();
+				List<ClinicFeedback> retryableFeedbacks = new ArrayList<>(result.retryable());
+				if (rejectedFeedbacks.size() > 1 && repository.isBulkEnabled()) {
+					// A bulk request is rejected as a whole; resend its feedbacks one by one so only
+					// the ones FlaskDB refuses on their own are dead-lettered
+					BulkSaveResult individually = repository.saveEach(rejectedFeedbacks);
+					saved += individually.saved();
+					rejectedFeedbacks = individually.rejected();
+					retryableFeedbacks.addAll(individually.retryable());
+				}
+				flushed.addAndGet(saved);
+				flushedCounter.add(saved);
+
+				for (ClinicFeedback feedback : rejectedFeedbacks) {
+					deadLetter(entries.get(feedback), "rejected by FlaskDB");
+				}
+				List<Entry> retry = new ArrayList<>();
+				for (ClinicFeedback feedback : retryableFeedbacks) {
+					Entry entry = entries.get(feedback);
+					if (++entry.attempts >= maxAttempts) {
+						deadLetter(entry, "gave up after " + entry.attempts + " attempts");
+					} else {
+						retry.add(entry);
+					}
+				}
+				batch.clear();
+				if (!retry.isEmpty()) {
+					pending.addAll(0, retry);
+					pendingSize = pending.size();
+					backOff(retry.size(), result);
+					return;
+				}
+				pendingSize = pending.size();
+				consecutiveFailedFlushes = 0;
+			}
+			truncateJournalIfDrained();
+		} catch (RuntimeException e) {
+			failedFlushes.incrementAndGet();
+			logger.error("Error flushing buffered feedbacks", e);
+		}
+	}
+
+	private void backOff(int retrying, BulkSaveResult result) {
+		failedFlushes.incrementAndGet();
+		consecutiveFailedFlushes++;
+		long intervalNanos = Math.max(1, flushInterval.toNanos());
+		long backoffNanos = Math.min(MAX_BACKOFF.toNanos(), intervalNanos << Math.min(consecutiveFailedFlushes - 1, 20));
+		retryNotBefore = System.nanoTime() + backoffNanos;
+		logger.warn("Flushing buffered feedbacks failed, retrying {} of them in {} ms: {}",
+			retrying, TimeUnit.NANOSECONDS.toMillis(backoffNanos), result);
+	}
+
+	/**
+	 * Gives up on a feedback: logs it and appends it to the dead-letter file. The client got a 202 long
+	 * ago, so the file (and the dead-letter metric) is the only place the loss shows up.
+	 */
+	private void deadLetter(Entry entry, String reason) {
+		deadLettered.incrementAndGet();
+		deadLetterCounter.add(1);
+		logger.error("Dropping feedback {} ({}); appending it to {}", entry.feedback.getId(), reason, deadLetterPath);
+		try {
+			String json = objectMapper.writeValueAsString(new DeadLetter(reason, entry.attempts, entry.feedback));
+			Files.write(deadLetterPath, List.of(json), StandardCharsets.UTF_8,
+				StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+		} catch (IOException e) {
+			logger.error("Could not write feedback {} to dead-letter file {}", entry.feedback.getId(), deadLetterPath, e);
+		}
+	}
+
+	private void appendToJournal(ClinicFeedback feedback) {
+		try {
+			byte[] json = objectMapper.writeValueAsBytes(feedback);
+			ByteBuffer line = ByteBuffer.allocate(json.length + 1).put(json).put((byte) '\n').flip();
+			while (line.hasRemaining()) {
+				journal.write(line);
+			}
+			if (fsync) {
+				journal.force(false);
+			}
+		} catch (IOException e) {
+			throw new UncheckedIOException("Error writing feedback journal: " + e.getMessage(), e);
+		}
+	}
+
+	// Keeps the next append from being glued onto a line torn by a crash
+	private void terminateTornLine() throws IOException {
+		long size = journal.size();
+		if (size == 0) {
+			return;
+		}
+		ByteBuffer last = ByteBuffer.allocate(1);
+		journal.read(last, size - 1);
+		if (last.get(0) != '\n') {
+			journal.write(ByteBuffer.wrap(new byte[] {'\n'}));
+		}
+	}
+
+	private void truncateJournalIfDrained() {
+		synchronized (journalLock) {
+			// Every journaled feedback was queued under this lock, so an empty queue means all are saved
+			if (queue.isEmpty() && pending.isEmpty()) {
+				try {
+					// Also moves the write position back to 0
+					journal.truncate(0);
+				} catch (IOException e) {
+					logger.warn("Could not truncate feedback journal {}", journalPath, e);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Loads feedbacks left in the journal by a previous run; they are sent before newly queued ones.
+	 * A torn last line from a crash mid-write is skipped.
+	 */
+	private void recoverJournal() throws IOException {
+		if (!Files.exists(journalPath)) {
+			return;
+		}
+		int skipped = 0;
+		try (BufferedReader reader = Files.newBufferedReader(journalPath, StandardCharsets.UTF_8)) {
+			for (String line; (line = reader.readLine()) != null; ) {
+				if (line.isBlank()) {
+					continue;
+				}
+				try {
+					pending.add(new Entry(objectMapper.readValue(line, ClinicFeedback.class)));
+				} catch (IOException e) {
+					skipped++;
+				}
+			}
+		}
+		pendingSize = pending.size();
+		if (!pending.isEmpty() || skipped > 0) {
+			logger.info("Recovered {} unsaved feedbacks from {} ({} unreadable lines skipped)", pending.size(), journalPath, skipped);
+		}
+	}
+
+	/**
+	 * Makes one last attempt to flush; whatever is still unsaved stays in the journal for the next start.
+	 */
+	@PreDestroy
+	public void shutdown() throws InterruptedException {
+		queueDepthGauge.close();
+		if (!enabled) {
+			return;
+		}
+		flusher.shutdown();
+		if (flusher.awaitTermination(10, TimeUnit.SECONDS)) {
+			drain();
+		} else {
+			flusher.shutdownNow();
+		}
+		try {
+			journal.close();
+		} catch (IOException e) {
+			logger.warn("Could not close feedback journal {}", journalPath, e);
+		}
+	}
+}
@@ -0,0 +1,211 @@
+package org.springframework.samples.petclinic.clinicfeedback;
+
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * HTTP access to the FlaskDB feedback store, guarded so that a slow or failing backend cannot pin
+ * request threads:
+ * <ul>
+ * <li>connect and per-request timeouts on every call;</li>
+ * <li>a bulkhead limiting concurrent calls, which waits at most {@code bulkhead-wait} for a slot;</li>
+ * <li>a circuit breaker that fails fast after consecutive errors (I/O errors, timeouts, 5xx);</li>
+ * <li>a dedicated, bounded executor for the client's I/O and async completions.</li>
+ * </ul>
+ * Rejected calls throw {@link FlaskDbUnavailableException} without touching the network.
+ */
+@Component
+public class FlaskDbClient {
+
+	private static final Logger logger = LoggerFactory.getLogger(FlaskDbClient.class);
+
+	private final URI baseUri;
+	private final Duration requestTimeout;
+	private final Duration bodyTimeout;
+	private final Duration bulkheadWait;
+	private final Semaphore bulkhead;
+	private final CircuitBreaker circuitBreaker;
+	private final ThreadPoolExecutor executor;
+	private final HttpClient httpClient;
+
+	public FlaskDbClient(@Value("${spring.data.flaskdb.uri}") String apiBaseUrl,
+						 @Value("${spring.data.flaskdb.http-version:HTTP_1_1}") HttpClient.Version httpVersion,
+						 @Value("${spring.data.flaskdb.connect-timeout:2s}") Duration connectTimeout,
+						 @Value("${spring.data.flaskdb.request-timeout:10s}") Duration requestTimeout,
+						 @Value("${spring.data.flaskdb.body-timeout:60s}") Duration bodyTimeout,
+						 @Value("${spring.data.flaskdb.executor-threads:8}") int executorThreads,
+						 @Value("${spring.data.flaskdb.bulkhead.max-concurrent:64}") int maxConcurrent,
+						 @Value("${spring.data.flaskdb.bulkhead.wait:500ms}") Duration bulkheadWait,
+						 @Value("${spring.data.flaskdb.circuit-breaker.failure-threshold:5}") int failureThreshold,
+						 @Value("${spring.data.flaskdb.circuit-breaker.open-duration:30s}") Duration openDuration,
+						 @Value("${spring.data.flaskdb.pool.max-connections:64}") int maxConnections,
+						 @Value("${spring.data.flaskdb.pool.keepalive:30s}") Duration keepAlive) {
+		this.baseUri = URI.create(apiBaseUrl);
+		this.requestTimeout = requestTimeout;
+		this.bodyTimeout = bodyTimeout;
+		this.bulkheadWait = bulkheadWait;
+		this.bulkhead = new Semaphore(Math.max(1, maxConcurrent));
+		this.circuitBreaker = new CircuitBreaker(failureThreshold, openDuration);
+
+		// The JDK client only takes pool limits from system properties, read once per JVM; explicit -D flags win
+		setIfAbsent("jdk.httpclient.connectionPoolSize", String.valueOf(maxConnections));
+		setIfAbsent("jdk.httpclient.keepalive.timeout", String.valueOf(keepAlive.toSeconds()));
+
+		int threads = Math.max(1, executorThreads);
+		AtomicInteger threadIds = new AtomicInteger();
+		this.executor = new ThreadPoolExecutor(threads, threads, 60, TimeUnit.SECONDS, new LinkedBlockingQueue<>(),
+			runnable -> {
+				Thread thread = new Thread(runnable, "flaskdb-http-" + threadIds.getAndIncrement());
+				thread.setDaemon(true);
+				return thread;
+			});
+		this.executor.allowCoreThreadTimeOut(true);
+		this.httpClient = HttpClient.newBuilder()
+			.version(httpVersion)
+			.connectTimeout(connectTimeout)
+			.executor(executor)
+			.build();
+	}
+
+	/**
+	 * Resolves a path relative to the feedback collection, e.g. {@code "/count"} or {@code "?page=0&size=10"}.
+	 */
+	public URI uri(String suffix) {
+		return suffix.isEmpty() ? baseUri : URI.create(baseUri + suffix);
+	}
+
+	public URI baseUri() {
+		return baseUri;
+	}
+
+	public HttpRequest.Builder request(URI uri) {
+		return HttpRequest.newBuilder(uri).timeout(requestTimeout);
+	}
+
+	/**
+	 * Sends a request synchronously within the bulkhead and circuit breaker.
+	 */
+	public HttpResponse<String> send(HttpRequest request) throws IOException, InterruptedException {
+		return send(request, HttpResponse.BodyHandlers.ofString());
+	}
+
+	/**
+	 * Sends a request synchronously within the bulkhead and circuit breaker. The request timeout only
+	 * covers the wait for the headers; for streamed bodies use {@link #sendStreaming(HttpRequest)}.
+	 */
+	public <T> HttpResponse<T> send(HttpRequest request, HttpResponse.BodyHandler<T> bodyHandler)
+		throws IOException, InterruptedException {
+		acquire();
+		try {
+			HttpResponse<T> response = httpClient.send(request, bodyHandler);
+			record(response.statusCode());
+			return response;
+		} catch (IOException e) {
+			// Includes HttpTimeoutException and HttpConnectTimeoutException
+			circuitBreaker.onFailure();
+			throw e;
+		} catch (InterruptedException e) {
+			// Our caller gave up, which says nothing about FlaskDB's health
+			circuitBreaker.onCancelled();
+			throw e;
+		} catch (RuntimeException e) {
+			circuitBreaker.onFailure();
+			throw e;
+		} finally {
+			bulkhead.release();
+		}
+	}
+
+	/**
+	 * Sends a request and returns as soon as the headers arrive; the caller reads (and must close) the
+	 * body afterwards, outside the bulkhead. Reads of the body fail with {@link java.net.http.HttpTimeoutException}
+	 * after {@code request-timeout} without data or {@code body-timeout} in total, and a timeout counts
+	 * against the circuit breaker.
+	 */
+	public HttpResponse<InputStream> sendStreaming(HttpRequest request) throws IOException, InterruptedException {
+		return send(request, responseInfo -> new TimedBodyInputStream(requestTimeout.toNanos(), bodyTimeout.toNanos(),
+			circuitBreaker::onFailure));
+	}
+
+	/**
+	 * Reads a small response body completely, failing if it is longer than {@code maxBytes}.
+	 */
+	public static byte[] readBounded(InputStream body, int maxBytes) throws IOException {
+		byte[] bytes = body.readNBytes(maxBytes + 1);
+		if (bytes.length > maxBytes) {
+			throw new IOException("Response body exceeds " + maxBytes + " bytes");
+		}
+		return bytes;
+	}
+
+	/**
+	 * Sends a request asynchronously; the bulkhead slot is held until the response (or failure) arrives.
+	 * May block the caller for up to {@code bulkhead-wait} while waiting for a slot.
+	 */
+	public CompletableFuture<HttpResponse<String>> sendAsync(HttpRequest request) {
+		try {
+			acquire();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			return CompletableFuture.failedFuture(e);
+		} catch (FlaskDbUnavailableException e) {
+			return CompletableFuture.failedFuture(e);
+		}
+		return httpClient.sendAsync(request, HttpResponse.BodyHandlers.ofString())
+			.whenComplete((response, error) -> {
+				bulkhead.release();
+				if (error != null) {
+					circuitBreaker.onFailure();
+				} else {
+					record(response.statusCode());
+				}
+			});
+	}
+
+	private void acquire() throws InterruptedException {
+		if (!bulkhead.tryAcquire(bulkheadWait.toNanos(), TimeUnit.NANOSECONDS)) {
+			throw new FlaskDbUnavailableException("FlaskDB bulkhead is full, too many concurrent requests");
+		}
+		if (!circuitBreaker.tryAcquire()) {
+			bulkhead.release();
+			throw new FlaskDbUnavailableException("FlaskDB circuit breaker is open after repeated failures");
+		}
+	}
+
+	private void record(int statusCode) {
+		if (statusCode >= 500) {
+			circuitBreaker.onFailure();
+		} else {
+			circuitBreaker.onSuccess();
+		}
+	}
+
+	private static void setIfAbsent(String property, String value) {
+		if (System.getProperty(property) == null) {
+			System.setProperty(property, value);
+		}
+	}
+
+	@PreDestroy
+	public void shutdown() {
+		logger.info("Shutting down FlaskDB client executor");
+		executor.shutdownNow();
+	}
+}
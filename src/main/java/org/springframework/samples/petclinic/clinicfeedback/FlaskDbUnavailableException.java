@@ -0,0 +1,11 @@
+package org.springframework.samples.petclinic.clinicfeedback;
+
+/**
+ * Thrown without contacting FlaskDB when its circuit breaker is open or its bulkhead is full.
+ */
+public class FlaskDbUnavailableException extends RuntimeException {
+
+	public FlaskDbUnavailableException(String message) {
+		super(message);
+	}
+}
@@ -0,0 +1,161 @@
+package org.springframework.samples.petclinic.clinicfeedback;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.net.http.HttpResponse;
+import java.net.http.HttpTimeoutException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.Flow;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Response body as an {@link InputStream}, like {@link HttpResponse.BodySubscribers#ofInputStream()},
+ * but reads give up instead of blocking forever: a read fails with {@link HttpTimeoutException} once
+ * no data has arrived for {@code idleTimeout}, or once the whole body has taken longer than
+ * {@code bodyTimeout}. The request timeout of the JDK client stops applying when the headers arrive,
+ * so without this a server stalling mid-body pins the reading thread.
+ * <p>
+ * A timed-out stream cancels the subscription, which releases the connection. Buffers are requested
+ * one list at a time, so at most about two lists are held in memory.
+ */
+final class TimedBodyInputStream extends InputStream implements HttpResponse.BodySubscriber<InputStream> {
+
+	// Compared by identity; the client may itself deliver empty lists
+	private static final List<ByteBuffer> END = new ArrayList<>(0);
+
+	private final long idleTimeoutNanos;
+	private final long deadline;
+	private final Runnable onTimeout;
+	private final BlockingQueue<List<ByteBuffer>> buffers = new LinkedBlockingQueue<>();
+
+	private volatile Flow.Subscription subscription;
+	private volatile Throwable failure;
+	private volatile boolean closed;
+	private Iterator<ByteBuffer> currentList = Collections.emptyIterator();
+	private ByteBuffer current;
+	private boolean done;
+
+	/**
+	 * @param onTimeout called once when a read times out, e.g. to count it against a circuit breaker
+	 */
+	TimedBodyInputStream(long idleTimeoutNanos, long bodyTimeoutNanos, Runnable onTimeout) {
+		this.idleTimeoutNanos = idleTimeoutNanos;
+		this.deadline = System.nanoTime() + bodyTimeoutNanos;
+		this.onTimeout = onTimeout;
+	}
+
+	@Override
+	public CompletionStage<InputStream> getBody() {
+		// Available as soon as the headers are; reads block until data arrives
+		return CompletableFuture.completedStage(this);
+	}
+
+	@Override
+	public void onSubscribe(Flow.Subscription subscription) {
+		this.subscription = subscription;
+		if (closed) {
+			subscription.cancel();
+		} else {
+			subscription.request(1);
+		}
+	}
+
+	@Override
+	public void onNext(List<ByteBuffer> item) {
+		buffers.offer(item);
+	}
+
+	@Override
+	public void onError(Throwable throwable) {
+		failure = throwable;
+		buffers.offer(END);
+	}
+
+	@Override
+	public void onComplete() {
+		buffers.offer(END);
+	}
+
+	@Override
+	public int read() throws IOException {
+		ByteBuffer buffer = current();
+		return buffer == null ? -1 : buffer.get() & 0xFF;
+	}
+
+	@Override
+	public int read(byte[] b, int off, int len) throws IOException {
+		if (len == 0) {
+			return 0;
+		}
+		ByteBuffer buffer = current();
+		if (buffer == null) {
+			return -1;
+		}
+		int n = Math.min(len, buffer.remaining());
+		buffer.get(b, off, n);
+		return n;
+	}
+
+	@Override
+	public void close() {
+		closed = true;
+		Flow.Subscription s = subscription;
+		if (s != null) {
+			s.cancel();
+		}
+	}
+
+	/**
+	 * The buffer to read from next, waiting (within the timeouts) for more data; {@code null} at the end.
+	 */
+	private ByteBuffer current() throws IOException {
+		while (current == null || !current.hasRemaining()) {
+			if (currentList.hasNext()) {
+				current = currentList.next();
+				continue;
+			}
+			if (done) {
+				return null;
+			}
+			if (closed) {
+				throw new IOException("Response body stream is closed");
+			}
+			long wait = Math.min(idleTimeoutNanos, deadline - System.nanoTime());
+			List<ByteBuffer> next;
+			try {
+				next = wait > 0 ? buffers.poll(wait, TimeUnit.NANOSECONDS) : buffers.poll();
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				close();
+				throw new InterruptedIOException("Interrupted while reading response body");
+			}
+			if (next == null) {
+				close();
+				onTimeout.run();
+				throw new HttpTimeoutException(deadline - System.nanoTime() <= 0
+					? "Response body not fully received within its deadline"
+					: "No response data received for " + TimeUnit.NANOSECONDS.toMillis(idleTimeoutNanos) + " ms");
+			}
+			if (next == END) {
+				done = true;
+				if (failure != null) {
+					throw new IOException("Error reading response body: " + failure.getMessage(), failure);
+				}
+				return null;
+			}
+			currentList = next.iterator();
+			// The previous list is consumed; let the next one come while this one is read
+			subscription.request(1);
+		}
+		return current;
+	}
+}
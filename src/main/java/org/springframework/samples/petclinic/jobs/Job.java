@@ -0,0 +1,134 @@
+package org.springframework.samples.petclinic.jobs;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A unit of background work tracked by {@link JobService}, such as a multi-million row
+ * population run. Progress counters are updated by the worker thread and read by the
+ * {@link JobController} without locking.
+ */
+public class Job implements JobProgress {
+
+    public enum Status {
+        QUEUED, RUNNING, SUCCEEDED, FAILED, CANCELLED
+    }
+
+    private final String id;
+    private final String type;
+    private final long total;
+    private final AtomicLong completed = new AtomicLong();
+    private final Instant createdAt = Instant.now();
+
+    private volatile Status status = Status.QUEUED;
+    private volatile boolean cancelRequested;
+    private volatile Instant startedAt;
+    private volatile Instant finishedAt;
+    private volatile String result;
+    private volatile String error;
+    private volatile Future<?> future;
+
+    Job(String id, String type, long total) {
+        this.id = id;
+        this.type = type;
+        this.total = total;
+    }
+
+    @Override
+    public void advance(long units) {
+        completed.addAndGet(units);
+    }
+
+    @Override
+    public boolean isCancelled() {
+        return cancelRequested;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public String getType() {
+        return type;
+    }
+
+    public Instant getCreatedAt() {
+        return createdAt;
+    }
+
+    public Status getStatus() {
+        return status;
+    }
+
+    public boolean isFinished() {
+        return status == Status.SUCCEEDED || status == Status.FAILED || status == Status.CANCELLED;
+    }
+
+    void attach(Future<?> future) {
+        this.future = future;
+    }
+
+    void markRunning() {
+        startedAt = Instant.now();
+        status = Status.RUNNING;
+    }
+
+    void markSucceeded(String result) {
+        this.result = result;
+        finish(Status.SUCCEEDED);
+    }
+
+    void markFailed(String error) {
+        this.error = error;
+        finish(cancelRequested ? Status.CANCELLED : Status.FAILED);
+    }
+
+    /**
+     * Requests cancellation. Queued jobs never start; running jobs stop at their next checkpoint.
+     * @return {@code false} if the job had already finished
+     */
+    boolean cancel() {
+        if (isFinished()) {
+            return false;
+        }
+        cancelRequested = true;
+        Future<?> running = future;
+        if (running != null) {
+            running.cancel(true);
+        }
+        if (status == Status.QUEUED) {
+            finish(Status.CANCELLED);
+        }
+        return true;
+    }
+
+    private void finish(Status finalStatus) {
+        finishedAt = Instant.now();
+        status = finalStatus;
+    }
+
+    /**
+     * Point-in-time view of the job including throughput and ETA, suitable for JSON rendering.
+     */
+    public JobSnapshot snapshot() {
+        long done = completed.get();
+        Instant start = startedAt;
+        Instant end = finishedAt != null ? finishedAt : Instant.now();
+        long elapsedMillis = start != null ? Duration.between(start, end).toMillis() : 0;
+        double unitsPerSecond = elapsedMillis > 0 ? done * 1000.0 / elapsedMillis : 0;
+        Long etaSeconds = null;
+        if (status == Status.RUNNING && unitsPerSecond > 0 && total > done) {
+            etaSeconds = Math.round((total - done) / unitsPerSecond);
+        }
+        double percent = total > 0 ? Math.min(100.0, done * 100.0 / total) : 0;
+        return new JobSnapshot(id, type, status, total, done, Math.round(percent * 10) / 10.0,
+            Math.round(unitsPerSecond), etaSeconds, elapsedMillis, createdAt, startedAt, finishedAt, result, error);
+    }
+
+    public record JobSnapshot(String id, String type, Status status, long total, long completed, double percentComplete,
+                              long perSecond, Long etaSeconds, long elapsedMillis, Instant createdAt,
+                              Instant startedAt, Instant finishedAt, String result, String error) {
+    }
+}
@@ -0,0 +1,55 @@
+package org.springframework.samples.petclinic.jobs;
+
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.net.URI;
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/jobs")
+public class JobController {
+
+    private final JobService jobService;
+
+    public JobController(JobService jobService) {
+        this.jobService = jobService;
+    }
+
+    @GetMapping
+    public List<Job.JobSnapshot> list() {
+        return jobService.list().stream().map(Job::snapshot).toList();
+    }
+
+    @GetMapping("/{id}")
+    public ResponseEntity<Job.JobSnapshot> get(@PathVariable("id") String id) {
+        return jobService.find(id)
+            .map(job -> ResponseEntity.ok(job.snapshot()))
+            .orElse(ResponseEntity.notFound().build());
+    }
+
+    @DeleteMapping("/{id}")
+    public ResponseEntity<String> cancel(@PathVariable("id") String id) {
+        if (jobService.find(id).isEmpty()) {
+            return ResponseEntity.notFound().build();
+        }
+        if (!jobService.cancel(id)) {
+            return ResponseEntity.badRequest().body("Job " + id + " has already finished.");
+        }
+        return ResponseEntity.accepted().body("Cancellation requested for job " + id + ".");
+    }
+
+    /**
+     * Standard 202 response for endpoints that hand their work to a {@link Job}.
+     */
+    public static ResponseEntity<String> accepted(Job job, String description) {
+        String location = "/api/jobs/" + job.getId();
+        return ResponseEntity.accepted()
+            .location(URI.create(location))
+            .body(description + " started as job " + job.getId() + ". Track progress at " + location + ".");
+    }
+}
@@ -0,0 +1,36 @@
+package org.springframework.samples.petclinic.jobs;
+
+/**
+ * Callback handed to long running work so it can report how many units (rows, operations)
+ * it has completed and notice when it has been asked to stop.
+ */
+public interface JobProgress {
+
+    /**
+     * Progress sink for callers that are not tracked as a job.
+     */
+    JobProgress NONE = new JobProgress() {
+        @Override
+        public void advance(long units) {
+        }
+
+        @Override
+        public boolean isCancelled() {
+            return false;
+        }
+    };
+
+    void advance(long units);
+
+    boolean isCancelled();
+
+    /**
+     * Throws {@link java.util.concurrent.CancellationException} if cancellation was requested.
+     * Work should call this at natural checkpoints, e.g. after every flushed batch.
+     */
+    default void checkCancelled() {
+        if (isCancelled()) {
+            throw new java.util.concurrent.CancellationException("Job was cancelled");
+        }
+    }
+}
@@ -0,0 +1,137 @@
+package org.springframework.samples.petclinic.jobs;
+
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Runs long operations (bulk population, load generation) off the HTTP request thread and
+ * keeps their progress so clients can poll {@code /api/jobs/{id}} or cancel them.
+ * Only a bounded number of jobs run concurrently; the rest wait in the queue. Long-running jobs
+ * (timed load generation) have their own, separate limit, so they cannot hold every slot for their
+ * whole duration while population jobs wait behind them.
+ */
+@Service
+public class JobService {
+
+    private static final Logger logger = LoggerFactory.getLogger(JobService.class);
+
+    /**
+     * The work executed by a job. The returned text becomes the job's result.
+     */
+    @FunctionalInterface
+    public interface Task {
+        String run(Job job) throws Exception;
+    }
+
+    private final Map<String, Job> jobs = new ConcurrentHashMap<>();
+    private final ExecutorService executorService;
+    private final ExecutorService longRunningExecutorService;
+    private final int retainedJobs;
+
+    public JobService(@Value("${app.jobs.max-concurrent:2}") int maxConcurrent,
+                      @Value("${app.jobs.max-concurrent-long-running:1}") int maxConcurrentLongRunning,
+                      @Value("${app.jobs.retained:100}") int retainedJobs) {
+        this.executorService = Executors.newFixedThreadPool(maxConcurrent);
+        this.longRunningExecutorService = Executors.newFixedThreadPool(maxConcurrentLongRunning);
+        this.retainedJobs = retainedJobs;
+    }
+
+    /**
+     * Queues a job of the given type that is expected to complete {@code total} units of work.
+     */
+    public Job submit(String type, long total, Task task) {
+        return submit(executorService, type, total, task);
+    }
+
+    /**
+     * Like {@link #submit}, for jobs that run for a fixed, possibly long time (e.g. load generation).
+     * They queue for their own slots instead of the ones used by population and index jobs.
+     */
+    public Job submitLongRunning(String type, long total, Task task) {
+        return submit(longRunningExecutorService, type, total, task);
+    }
+
+    private Job submit(ExecutorService executor, String type, long total, Task task) {
+        evictFinishedJobs();
+        Job job = new Job(UUID.randomUUID().toString(), type, total);
+        jobs.put(job.getId(), job);
+        job.attach(executor.submit(() -> execute(job, task)));
+        logger.info("Queued job {} ({}) for {} units of work", job.getId(), type, total);
+        return job;
+    }
+
+    public Optional<Job> find(String id) {
+        return Optional.ofNullable(jobs.get(id));
+    }
+
+    public List<Job> list() {
+        return jobs.values().stream()
+            .sorted(Comparator.comparing(Job::getCreatedAt).reversed())
+            .toList();
+    }
+
+    /**
+     * @return {@code false} if there is no such job or it already finished
+     */
+    public boolean cancel(String id) {
+        Job job = jobs.get(id);
+        if (job == null || !job.cancel()) {
+            return false;
+        }
+        logger.info("Cancellation requested for job {} ({})", id, job.getType());
+        return true;
+    }
+
+    private void execute(Job job, Task task) {
+        if (job.isCancelled()) {
+            return;
+        }
+        job.markRunning();
+        try {
+            String result = task.run(job);
+            if (job.isCancelled()) {
+                job.markFailed("Cancelled");
+            } else {
+                job.markSucceeded(result);
+            }
+            logger.info("Job {} ({}) finished: {}", job.getId(), job.getType(), job.getStatus());
+        } catch (Throwable e) {
+            // Errors too: anything escaping here would leave the job RUNNING forever
+            job.markFailed(e.getMessage() != null ? e.getMessage() : e.toString());
+            if (job.isCancelled()) {
+                logger.info("Job {} ({}) cancelled", job.getId(), job.getType());
+            } else {
+                logger.error("Job {} ({}) failed", job.getId(), job.getType(), e);
+            }
+        }
+    }
+
+    private void evictFinishedJobs() {
+        if (jobs.size() < retainedJobs) {
+            return;
+        }
+        jobs.values().stream()
+            .filter(Job::isFinished)
+            .sorted(Comparator.comparing(Job::getCreatedAt))
+            .limit(jobs.size() - retainedJobs + 1L)
+            .forEach(job -> jobs.remove(job.getId()));
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executorService.shutdownNow();
+        longRunningExecutorService.shutdownNow();
+    }
+}
@@ -18,6 +18,7 @@ package org.springframework.samples.petclinic.owner;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 import io.opentelemetry.api.OpenTelemetry;
@@ -30,7 +31,7 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
-import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.http.ResponseEntity;
 import org.springframework.samples.petclinic.domain.OwnerValidation;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
@@ -52,6 +53,8 @@ class OwnerController implements InitializingBean {
 
 	private static final String VIEWS_OWNER_CREATE_OR_UPDATE_FORM = "owners/createOrUpdateOwnerForm";
 
+	private static final int MAX_BULK_OWNER_IDS = 1000;
+
 	private OwnerValidation validator;
 
 	@Autowired
@@ -69,13 +72,9 @@ class OwnerController implements InitializingBean {
 	}
 
 	private final OwnerRepository owners;
-	private final JdbcTemplate jdbcTemplate;
-
-	public OwnerController(OwnerRepository clinicService, JdbcTemplate jdbcTemplate
 
-	) {
+	public OwnerController(OwnerRepository clinicService) {
 		this.owners = clinicService;
-		this.jdbcTemplate = jdbcTemplate;
 	}
 
 	@InitBinder
@@ -223,20 +222,9 @@ class OwnerController implements InitializingBean {
 	@GetMapping("/owners/{ownerId}/pets")
 	@ResponseBody
 	public String getOwnerPetsMap(@PathVariable("ownerId") int ownerId) {
-		String sql = "SELECT p.id AS pet_id, p.owner_id AS owner_id FROM pets p JOIN owners o ON p.owner_id = o.id";
-
-		List<Map<String, Object>> rows = jdbcTemplate.queryForList(sql);
-
-		Map<Integer, List<Integer>> ownerToPetsMap = rows.stream()
-			.collect(Collectors.toMap(
-				row -> (Integer) row.get("owner_id"),
-				row -> List.of((Integer) row.get("pet_id"))  // Immutable list
-			));
-
-
-		List<Integer> pets = ownerToPetsMap.get(ownerId);
+		List<Integer> pets = this.owners.findPetIdsByOwnerId(ownerId);
 
-		if (pets == null || pets.isEmpty()) {
+		if (pets.isEmpty()) {
 			return "No pets found for owner " + ownerId;
 		}
 
@@ -245,4 +233,17 @@ class OwnerController implements InitializingBean {
 			.collect(Collectors.joining(", "));
 
 	}
+
+	/**
+	 * Bulk variant of {@link #getOwnerPetsMap(int)}: maps each requested owner to its pet
+	 * ids, e.g. {@code /owners/pets?ownerIds=1,3} returns {@code {"1":[1],"3":[3,4]}}.
+	 */
+	@GetMapping("/owners/pets")
+	@ResponseBody
+	public ResponseEntity<?> getPetsByOwnerIds(@RequestParam("ownerIds") Set<Integer> ownerIds) {
+		if (ownerIds.size() > MAX_BULK_OWNER_IDS) {
+			return ResponseEntity.badRequest().body("At most " + MAX_BULK_OWNER_IDS + " owner ids per request.");
+		}
+		return ResponseEntity.ok(this.owners.findPetIdsByOwnerIds(ownerIds));
+	}
 }
@@ -15,7 +15,10 @@
  */
 package org.springframework.samples.petclinic.owner;
 
-import java.util.List;import org.springframework.data.domain.Page;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.Repository;
@@ -75,6 +78,58 @@ import org.springframework.transaction.annotation.Transactional;
 	 */
 	void save(Owner owner);
 
+	/**
+	 * Retrieve the ids of an owner's pets, in ascending order, through the index on
+	 * {@code pets.owner_id}.
+	 * @param ownerId the owner to look up
+	 * @return the pet ids (or an empty List if the owner has no pets)
+	 */
+	@Query(value = "SELECT id FROM pets WHERE owner_id = :ownerId ORDER BY id", nativeQuery = true)
+	@Transactional(readOnly = true)
+	List<Integer> findPetIdsByOwnerId(@Param("ownerId") int ownerId);
+
+	/**
+	 * Retrieve {@code (owner_id, pet_id)} pairs for the given owners, ordered by owner then
+	 * pet, in one indexed query.
+	 */
+	@Query(value = "SELECT owner_id, id FROM pets WHERE owner_id IN (:ownerIds) ORDER BY owner_id, id",
+			nativeQuery = true)
+	@Transactional(readOnly = true)
+	List<Object[]> findOwnerPetIdPairs(@Param("ownerIds") Collection<Integer> ownerIds);
+
+	/**
+	 * Retrieve the pet ids of many owners at once.
+	 * @param ownerIds the owners to look up
+	 * @return each requested owner mapped to its pet ids in ascending order (empty if
+	 * it has none), in the order the owners were requested
+	 */
+	default Map<Integer, int[]> findPetIdsByOwnerIds(Collection<Integer> ownerIds) {
+		Map<Integer, int[]> petIds = new LinkedHashMap<>();
+		if (ownerIds.isEmpty()) {
+			return petIds;
+		}
+		List<Object[]> pairs = findOwnerPetIdPairs(ownerIds);
+		int from = 0;
+		while (from < pairs.size()) {
+			int ownerId = ((Number) pairs.get(from)[0]).intValue();
+			int to = from;
+			while (to < pairs.size() && ((Number) pairs.get(to)[0]).intValue() == ownerId) {
+				to++;
+			}
+			int[] ids = new int[to - from];
+			for (int i = from; i < to; i++) {
+				ids[i - from] = ((Number) pairs.get(i)[1]).intValue();
+			}
+			petIds.put(ownerId, ids);
+			from = to;
+		}
+		Map<Integer, int[]> ordered = new LinkedHashMap<>();
+		for (Integer ownerId : ownerIds) {
+			ordered.put(ownerId, petIds.getOrDefault(ownerId, new int[0]));
+		}
+		return ordered;
+	}
+
 	@Query("SELECT SIZE(o.pets) FROM Owner o WHERE o.id = :id")
 	@Transactional(readOnly = true)
 	int countPets(int id);
@@ -0,0 +1,79 @@
+package org.springframework.samples.petclinic.patientrecords;
+
+import com.github.javafaker.Faker;
+import org.springframework.samples.petclinic.model.PatientRecord;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Date;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+
+/**
+ * Original Faker based generator: every row builds fresh veterinary notes and dates.
+ */
+final class FakerPatientRecordGenerator implements PatientRecordRowGenerator {
+
+    private static final List<String> TREATMENT_TYPES = PatientRecordDataService.TREATMENT_TYPES;
+
+    private final Random random;
+    private final Faker faker;
+    private final Date from;
+    private final Date to;
+
+    FakerPatientRecordGenerator(long seed, LocalDateTime from, LocalDateTime to) {
+        this.random = new Random(seed);
+        this.faker = new Faker(new Locale("en-US"), random);
+        this.from = Date.from(from.atZone(ZoneId.systemDefault()).toInstant());
+        this.to = Date.from(to.atZone(ZoneId.systemDefault()).toInstant());
+    }
+
+    @Override
+    public void fill(PatientRecord record) {
+        String treatmentType = TREATMENT_TYPES.get(random.nextInt(TREATMENT_TYPES.size()));
+        record.setTreatmentType(treatmentType);
+        record.setPatientWeight(faker.number().numberBetween(500, 50_000)); // 0.5kg to 50kg in grams
+        record.setVisitDate(LocalDateTime.ofInstant(faker.date().between(from, to).toInstant(), ZoneId.systemDefault()));
+        record.setTreatmentCompleted(faker.bool().bool());
+        record.setMedicalNotes(generateVeterinaryNotes(faker, treatmentType));
+    }
+
+    static String generateVeterinaryNotes(Faker faker, String treatmentType) {
+        StringBuilder notes = new StringBuilder();
+        
+        // Treatment-specific notes
+        switch (treatmentType) {
+            case "Annual Wellness Exam":
+                notes.append("Patient appears healthy. Weight within normal range. ");
+                notes.append("Heart rate: ").append(faker.number().numberBetween(60, 120)).append(" bpm. ");
+                notes.append("Temperature: ").append(faker.number().numberBetween(100, 103)).append("°F. ");
+                break;
+            case "Dental Cleaning":
+                notes.append("Dental tartar buildup noted. Cleaning performed under anesthesia. ");
+                notes.append("Extracted ").append(faker.number().numberBetween(0, 3)).append(" damaged teeth. ");
+                break;
+            case "Vaccination (Rabies)":
+            case "Vaccination (DHPP)":
+            case "Vaccination (FVRCP)":
+                notes.append("Vaccination administered successfully. ");
+                notes.append("Next vaccination due in 1 year. ");
+                notes.append("No adverse reactions observed. ");
+                break;
+            case "Emergency Treatment":
+                notes.append("Emergency case: ").append(faker.medical().symptoms()).append(". ");
+                notes.append("Immediate treatment provided. ");
+                break;
+            default:
+                notes.append("Treatment performed as scheduled. ");
+                notes.append("Patient responded well to procedure. ");
+        }
+        
+        // Add general veterinary observations
+        notes.append("Owner compliance: ").append(faker.options().option("Excellent", "Good", "Fair"));
+        notes.append(". Follow-up: ").append(faker.options().option("Not needed", "1 week", "2 weeks", "1 month"));
+        notes.append(". Additional notes: ").append(faker.lorem().sentence());
+        
+        return notes.toString();
+    }
+}
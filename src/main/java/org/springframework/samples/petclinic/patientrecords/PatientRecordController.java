@@ -11,13 +11,22 @@ import org.springframework.beans.factory.InitializingBean;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.context.annotation.Profile;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.samples.petclinic.jobs.Job;
+import org.springframework.samples.petclinic.jobs.JobController;
+import org.springframework.samples.petclinic.jobs.JobService;
+import org.springframework.samples.petclinic.system.ExportReader;
+import org.springframework.samples.petclinic.system.NdjsonStreamWriter;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.time.LocalDateTime;
 import java.util.List;
-import java.util.Map;
+import java.util.Optional;
 import java.util.concurrent.ThreadLocalRandom;
 
 @RestController
@@ -30,6 +39,8 @@ public class PatientRecordController implements InitializingBean {
     private final PatientRecordDataService dataService;
     private final PatientRecordRepository repository;
     private final JdbcTemplate mysqlJdbcTemplate;
+    private final JobService jobService;
+    private final PatientRecordQueryService queryService;
 
     @Autowired
     private OpenTelemetry openTelemetry;
@@ -39,10 +50,14 @@ public class PatientRecordController implements InitializingBean {
     @Autowired
     public PatientRecordController(PatientRecordDataService dataService,
                                    PatientRecordRepository repository,
-                                   @Qualifier("mysqlJdbcTemplate") JdbcTemplate mysqlJdbcTemplate) {
+                                   @Qualifier("mysqlJdbcTemplate") JdbcTemplate mysqlJdbcTemplate,
+                                   JobService jobService,
+                                   PatientRecordQueryService queryService) {
         this.dataService = dataService;
         this.repository = repository;
         this.mysqlJdbcTemplate = mysqlJdbcTemplate;
+        this.jobService = jobService;
+        this.queryService = queryService;
     }
 
     @Override
@@ -50,8 +65,24 @@ public class PatientRecordController implements InitializingBean {
         this.otelTracer = openTelemetry.getTracer("PatientRecordController");
     }
 
+    /**
+     * Starts a population job. Rows are committed in checkpointed chunks; a load that failed or was
+     * cancelled is continued with {@code resumeLoadId}, in which case only {@code workers} is taken
+     * from the request and everything else from the original load.
+     */
     @PostMapping("/populate-records")
-    public ResponseEntity<String> populateData(@RequestParam(name = "count", defaultValue = "6000000") int count) {
+    public ResponseEntity<String> populateData(@RequestParam(name = "count", defaultValue = "6000000") int count,
+                                               @RequestParam(name = "generator", required = false) String generator,
+                                               @RequestParam(name = "seed", required = false) Long seed,
+                                               @RequestParam(name = "loader", defaultValue = "batch") String loader,
+                                               @RequestParam(name = "workers", defaultValue = "0") int workers,
+                                               @RequestParam(name = "resumeLoadId", required = false) String resumeLoadId) {
+        if (workers < 0) {
+            return ResponseEntity.badRequest().body("Workers must not be negative.");
+        }
+        if (resumeLoadId != null) {
+            return resumeLoad(resumeLoadId, workers);
+        }
         logger.info("Received request to populate {} patient records.", count);
         if (count <= 0) {
             return ResponseEntity.badRequest().body("Count must be a positive integer.");
@@ -59,39 +90,83 @@ public class PatientRecordController implements InitializingBean {
         if (count > 10_000_000) {
             return ResponseEntity.badRequest().body("Count too high - maximum 10,000,000 patient records.");
         }
+        PatientRecordLoadOptions options;
         try {
-            dataService.populateData(count);
-            return ResponseEntity.ok("Successfully initiated population of " + count + " patient records.");
-        } catch (Exception e) {
-            logger.error("Error during patient records population", e);
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body("Error during data population: " + e.getMessage());
+            options = new PatientRecordLoadOptions(workers, PatientRecordLoader.of(loader), generator, seed);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
         }
+        Job job = jobService.submit("populate-records", count, progress -> {
+            PatientRecordLoadReport report = dataService.populateData(count, options, progress);
+            return "Successfully populated " + count + " patient records: " + report;
+        });
+        return JobController.accepted(job, "Population of " + count + " patient records");
     }
 
-    @GetMapping(value = "/query-records", produces = "application/json")
-    public List<Map<String, Object>> getRecords(
+    private ResponseEntity<String> resumeLoad(String loadId, int workers) {
+        logger.info("Received request to resume patient records load {}.", loadId);
+        Optional<PatientRecordLoadPlan> plan = dataService.findLoad(loadId);
+        if (plan.isEmpty()) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body("Unknown patient records load '" + loadId + "'.");
+        }
+        int count = plan.get().totalRows();
+        Job job = jobService.submit("populate-records", count, progress -> {
+            PatientRecordLoadReport report = dataService.resumeLoad(loadId, workers, progress);
+            return "Successfully populated " + count + " patient records: " + report;
+        });
+        return JobController.accepted(job, "Resumed population of " + count + " patient records (load " + loadId + ")");
+    }
+
+    /**
+     * Streams one keyset page of records as a JSON array. Pass the last returned id as {@code afterId}
+     * to fetch the next page; an empty array means there are no more rows.
+     */
+    @GetMapping("/query-records")
+    public ResponseEntity<?> getRecords(
             @RequestParam(name = "weight", defaultValue = "5000") int patientWeight,
+            @RequestParam(name = "afterId", defaultValue = "0") long afterId,
+            @RequestParam(name = "pageSize", defaultValue = "1000") int pageSize,
+            @RequestParam(name = "columns", required = false) List<String> columns,
             @RequestParam(name = "repetitions", defaultValue = "1") int repetitions) {
-        
         logger.info("Querying patient records by weight: {} (repetitions: {})", patientWeight, repetitions);
-        
-        String sql = "SELECT id, treatment_type, patient_weight, visit_date, treatment_completed, medical_notes " +
-                    "FROM patient_records WHERE patient_weight = ?";
-        
-        List<Map<String, Object>> lastResults = null;
-        for (int i = 0; i < repetitions; i++) {
-            lastResults = mysqlJdbcTemplate.queryForList(sql, patientWeight);
+        StreamingResponseBody body;
+        try {
+            body = queryService.queryRecords(patientWeight, afterId, pageSize, columns, repetitions);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
         }
-        
-        logger.info("Query completed. Found {} records for weight: {}", 
-                   lastResults != null ? lastResults.size() : 0, patientWeight);
-        return lastResults;
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON).body(body);
+    }
+
+    /**
+     * Streams every record matching the criteria as newline-delimited JSON, one object per line, without
+     * loading the result into memory. Dates are ISO date-times, {@code endDate} is exclusive.
+     * {@code reader=stateless} (the default) scrolls through a stateless session; {@code jpa} streams managed entities.
+     */
+    @GetMapping("/export-records")
+    public ResponseEntity<?> exportRecords(
+            @RequestParam(name = "treatmentType") String treatmentType,
+            @RequestParam(name = "minWeight", defaultValue = "0") int minWeight,
+            @RequestParam(name = "maxWeight", defaultValue = "2147483647") int maxWeight,
+            @RequestParam(name = "startDate") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime startDate,
+            @RequestParam(name = "endDate") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime endDate,
+            @RequestParam(name = "treatmentCompleted", defaultValue = "true") boolean treatmentCompleted,
+            @RequestParam(name = "reader", defaultValue = "stateless") String reader) {
+        StreamingResponseBody body;
+        try {
+            body = queryService.exportRecords(treatmentType, minWeight, maxWeight, startDate, endDate, treatmentCompleted, ExportReader.of(reader));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+        return ResponseEntity.ok().contentType(MediaType.parseMediaType(NdjsonStreamWriter.MEDIA_TYPE)).body(body);
     }
 
     @DeleteMapping("/cleanup-records")
     public ResponseEntity<String> cleanupRecords() {
         logger.info("Received request to cleanup all patient records.");
         try {
+            // Outside the cleanup transaction, which the table DDL would otherwise commit early
+            dataService.ensureCheckpointTables();
             dataService.cleanupPatientRecords();
             return ResponseEntity.ok("Successfully cleaned up all patient records.");
         } catch (Exception e) {
@@ -101,43 +176,94 @@ public class PatientRecordController implements InitializingBean {
     }
 
     @PostMapping("/recreate-and-populate-records")
-    public ResponseEntity<String> recreateAndPopulateRecords(@RequestParam(name = "count", defaultValue = "6000000") int count) {
+    public ResponseEntity<String> recreateAndPopulateRecords(@RequestParam(name = "count", defaultValue = "6000000") int count,
+                                                             @RequestParam(name = "generator", required = false) String generator,
+                                                             @RequestParam(name = "seed", required = false) Long seed,
+                                                             @RequestParam(name = "loader", defaultValue = "batch") String loader,
+                                                             @RequestParam(name = "workers", defaultValue = "0") int workers,
+                                                             @RequestParam(name = "deferIndexes", defaultValue = "false") boolean deferIndexes) {
         logger.info("Received request to recreate and populate {} patient records.", count);
+        if (workers < 0) {
+            return ResponseEntity.badRequest().body("Workers must not be negative.");
+        }
         if (count <= 0) {
             return ResponseEntity.badRequest().body("Count must be a positive integer.");
         }
         if (count > 10_000_000) {
             return ResponseEntity.badRequest().body("Count too high - maximum 10,000,000 patient records.");
         }
+        PatientRecordLoadOptions options;
         try {
-            // Drop the table
-            mysqlJdbcTemplate.execute("DROP TABLE IF EXISTS patient_records");
-            logger.info("Table 'patient_records' dropped successfully.");
-
-            // Recreate the table with MySQL syntax
-            String createTableSql = 
-                "CREATE TABLE patient_records (" +
-                "id INT AUTO_INCREMENT PRIMARY KEY," +
-                "treatment_type VARCHAR(255) NOT NULL," +
-                "patient_weight INT NOT NULL," +
-                "visit_date TIMESTAMP NOT NULL," +
-                "treatment_completed BOOLEAN NOT NULL," +
-                "medical_notes TEXT," +
-                "INDEX idx_treatment_type (treatment_type)," +
-                "INDEX idx_visit_date (visit_date)," +
-                "INDEX idx_treatment_completed (treatment_completed)" +
-                ") ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci";
-            
-            mysqlJdbcTemplate.execute(createTableSql);
-            logger.info("Table 'patient_records' created successfully.");
-
-            // Populate data
-            dataService.populateData(count);
-            return ResponseEntity.ok("Successfully recreated and initiated population of " + count + " patient records.");
-        } catch (Exception e) {
-            logger.error("Error during patient records recreation and population", e);
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body("Error during data recreation and population: " + e.getMessage());
+            options = new PatientRecordLoadOptions(workers, PatientRecordLoader.of(loader), generator, seed);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
         }
+        Job job = jobService.submit("recreate-and-populate-records", count, progress -> {
+            long startTime = System.currentTimeMillis();
+            recreateTable(!deferIndexes);
+            long recreatedTime = System.currentTimeMillis();
+            PatientRecordLoadReport report;
+            try {
+                report = dataService.populateData(count, options, progress);
+            } catch (RuntimeException e) {
+                if (deferIndexes) {
+                    logger.warn("Load into patient_records failed before its secondary indexes were built; " +
+                        "POST /api/patient-records/build-indexes after resuming it.");
+                }
+                throw e;
+            }
+            long loadedTime = System.currentTimeMillis();
+            String phases = String.format("recreate %d ms, load %d ms", recreatedTime - startTime, loadedTime - recreatedTime);
+            if (deferIndexes) {
+                List<String> built = dataService.buildSecondaryIndexes();
+                phases += String.format(", index build %d ms (%s)", System.currentTimeMillis() - loadedTime, String.join(", ", built));
+            }
+            logger.info("Recreated and populated patient_records: {}", phases);
+            return "Successfully recreated and populated " + count + " patient records: " + report + "; " + phases;
+        });
+        return JobController.accepted(job, "Recreation and population of " + count + " patient records" +
+            (deferIndexes ? " with deferred index build" : ""));
+    }
+
+    /**
+     * Builds any secondary indexes patient_records is missing, e.g. after a deferred-index load was resumed.
+     */
+    @PostMapping("/build-indexes")
+    public ResponseEntity<String> buildIndexes() {
+        Job job = jobService.submit("build-indexes", PatientRecordDataService.SECONDARY_INDEXES.size(), progress -> {
+            long startTime = System.currentTimeMillis();
+            List<String> built = dataService.buildSecondaryIndexes();
+            progress.advance(PatientRecordDataService.SECONDARY_INDEXES.size());
+            return built.isEmpty() ? "All patient_records indexes already exist."
+                : "Built " + String.join(", ", built) + " in " + (System.currentTimeMillis() - startTime) + " ms.";
+        });
+        return JobController.accepted(job, "Index build for patient_records");
+    }
+
+    /**
+     * @param withIndexes whether to create the secondary indexes now; otherwise they are built after the load
+     */
+    private void recreateTable(boolean withIndexes) {
+        // Drop the table
+        mysqlJdbcTemplate.execute("DROP TABLE IF EXISTS patient_records");
+        logger.info("Table 'patient_records' dropped successfully.");
+
+        // Recreate the table with MySQL syntax
+        String createTableSql = 
+            "CREATE TABLE patient_records (" +
+            "id INT AUTO_INCREMENT PRIMARY KEY," +
+            "treatment_type VARCHAR(255) NOT NULL," +
+            "patient_weight INT NOT NULL," +
+            "visit_date TIMESTAMP NOT NULL," +
+            "treatment_completed BOOLEAN NOT NULL," +
+            "medical_notes TEXT" +
+            (withIndexes ? ", INDEX " + String.join(", INDEX ", PatientRecordDataService.SECONDARY_INDEXES) : "") +
+            ") ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci";
+        
+        mysqlJdbcTemplate.execute(createTableSql);
+        dataService.clearLoadCheckpoints();
+        dataService.invalidateQueryCache();
+        logger.info("Table 'patient_records' created successfully.");
     }
 
     @GetMapping("/run-simulated-queries")
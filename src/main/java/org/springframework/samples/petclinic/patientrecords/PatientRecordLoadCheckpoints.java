@@ -0,0 +1,88 @@
+package org.springframework.samples.petclinic.patientrecords;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Timestamp;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * Bookkeeping tables for restartable patient records loads. A load's plan is stored once when it is
+ * created; every chunk inserts its checkpoint row in the same transaction as its data, so a chunk is
+ * recorded if and only if its rows are committed.
+ */
+final class PatientRecordLoadCheckpoints {
+
+    private static final String CREATE_LOADS_SQL =
+        "CREATE TABLE IF NOT EXISTS patient_record_loads (" +
+        "load_id CHAR(36) PRIMARY KEY," +
+        "total_rows INT NOT NULL," +
+        "chunk_rows INT NOT NULL," +
+        "seed BIGINT NOT NULL," +
+        "generator VARCHAR(32) NOT NULL," +
+        "loader VARCHAR(16) NOT NULL," +
+        "window_end TIMESTAMP NOT NULL," +
+        "created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP" +
+        ") ENGINE=InnoDB";
+
+    private static final String CREATE_CHECKPOINTS_SQL =
+        "CREATE TABLE IF NOT EXISTS patient_record_load_checkpoints (" +
+        "load_id CHAR(36) NOT NULL," +
+        "chunk_no INT NOT NULL," +
+        "row_count INT NOT NULL," +
+        "committed_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP," +
+        "PRIMARY KEY (load_id, chunk_no)" +
+        ") ENGINE=InnoDB";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    PatientRecordLoadCheckpoints(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    void createTables() {
+        jdbcTemplate.execute(CREATE_LOADS_SQL);
+        jdbcTemplate.execute(CREATE_CHECKPOINTS_SQL);
+    }
+
+    void saveLoad(PatientRecordLoadPlan plan) {
+        jdbcTemplate.update(
+            "INSERT INTO patient_record_loads (load_id, total_rows, chunk_rows, seed, generator, loader, window_end) VALUES (?, ?, ?, ?, ?, ?, ?)",
+            plan.loadId(), plan.totalRows(), plan.chunkRows(), plan.seed(), plan.generator(), plan.loader().name(),
+            Timestamp.valueOf(plan.windowEnd()));
+    }
+
+    Optional<PatientRecordLoadPlan> findLoad(String loadId) {
+        List<PatientRecordLoadPlan> plans = jdbcTemplate.query(
+            "SELECT load_id, total_rows, chunk_rows, seed, generator, loader, window_end FROM patient_record_loads WHERE load_id = ?",
+            (rs, rowNum) -> new PatientRecordLoadPlan(rs.getString(1), rs.getInt(2), rs.getInt(3), rs.getLong(4),
+                rs.getString(5), PatientRecordLoader.of(rs.getString(6)), rs.getTimestamp(7).toLocalDateTime()),
+            loadId);
+        return plans.stream().findFirst();
+    }
+
+    Set<Integer> committedChunks(String loadId) {
+        return new HashSet<>(jdbcTemplate.queryForList(
+            "SELECT chunk_no FROM patient_record_load_checkpoints WHERE load_id = ?", Integer.class, loadId));
+    }
+
+    /**
+     * Must run inside the transaction that inserts the chunk's rows.
+     */
+    void recordChunk(String loadId, int chunk, int rows) {
+        jdbcTemplate.update(
+            "INSERT INTO patient_record_load_checkpoints (load_id, chunk_no, row_count) VALUES (?, ?, ?)",
+            loadId, chunk, rows);
+    }
+
+    /**
+     * Forgets every load; called whenever patient_records is emptied, since the checkpoints no longer describe its contents.
+     */
+    void clear() {
+        // DELETE rather than TRUNCATE, which would implicitly commit the caller's transaction
+        jdbcTemplate.update("DELETE FROM patient_record_load_checkpoints");
+        jdbcTemplate.update("DELETE FROM patient_record_loads");
+    }
+}
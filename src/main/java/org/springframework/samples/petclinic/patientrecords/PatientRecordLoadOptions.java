@@ -0,0 +1,25 @@
+package org.springframework.samples.petclinic.patientrecords;
+
+/**
+ * Per-request tuning for a patient records population run.
+ *
+ * @param workers number of parallel load workers, or {@code 0} to use the configured default
+ * @param loader bulk load strategy
+ * @param generator row generator kind ({@code faker} or {@code synthetic}), or {@code null} for the configured default
+ * @param seed base seed for reproducible data, or {@code null} for a random one
+ */
+public record PatientRecordLoadOptions(int workers, PatientRecordLoader loader, String generator, Long seed) {
+
+    public PatientRecordLoadOptions {
+        if (loader == null) {
+            loader = PatientRecordLoader.BATCH;
+        }
+        if (generator != null) {
+            generator = PatientRecordRowGenerator.normalize(generator);
+        }
+    }
+
+    public static PatientRecordLoadOptions defaults() {
+        return new PatientRecordLoadOptions(0, PatientRecordLoader.BATCH, null, null);
+    }
+}
@@ -0,0 +1,28 @@
+package org.springframework.samples.petclinic.patientrecords;
+
+import java.time.LocalDateTime;
+import java.util.SplittableRandom;
+
+/**
+ * Everything needed to (re)generate a patient records load: the rows are split into fixed-size
+ * chunks, and chunk {@code n} is always generated from the same seed and visit-date window, so a
+ * resumed load produces exactly the rows the failed run would have committed.
+ *
+ * @param windowEnd end of the two-year visit-date window, fixed when the load is created
+ */
+public record PatientRecordLoadPlan(String loadId, int totalRows, int chunkRows, long seed, String generator,
+                                    PatientRecordLoader loader, LocalDateTime windowEnd) {
+
+    public int chunkCount() {
+        return (totalRows + chunkRows - 1) / chunkRows;
+    }
+
+    public int rowsInChunk(int chunk) {
+        return Math.min(chunkRows, totalRows - chunk * chunkRows);
+    }
+
+    PatientRecordRowGenerator generatorForChunk(int chunk) {
+        long chunkSeed = new SplittableRandom(seed + chunk * 0x9E3779B97F4A7C15L).nextLong();
+        return PatientRecordRowGenerator.create(generator, chunkSeed, windowEnd.minusDays(2 * 365), windowEnd);
+    }
+}
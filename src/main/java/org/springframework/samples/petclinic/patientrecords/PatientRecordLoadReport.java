@@ -0,0 +1,21 @@
+package org.springframework.samples.petclinic.patientrecords;
+
+/**
+ * Summary of a patient records population run.
+ *
+ * @param rows rows committed by this run
+ * @param resumedRows rows that an earlier run of the same load had already committed
+ */
+public record PatientRecordLoadReport(String loadId, long rows, long resumedRows, int workers, long elapsedMillis) {
+
+    public double rowsPerSecond() {
+        return elapsedMillis > 0 ? rows * 1000.0 / elapsedMillis : rows;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("load %s: %d rows in %d ms using %d worker(s) (%d rows/sec)%s",
+            loadId, rows, elapsedMillis, workers, Math.round(rowsPerSecond()),
+            resumedRows > 0 ? ", " + resumedRows + " rows already committed before resuming" : "");
+    }
+}
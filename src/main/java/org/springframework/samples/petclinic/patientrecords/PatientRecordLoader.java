@@ -0,0 +1,28 @@
+package org.springframework.samples.petclinic.patientrecords;
+
+import java.util.Locale;
+
+/**
+ * Bulk load strategies for patient_records on MySQL.
+ * <p>
+ * {@link #BATCH} sends multi-row {@code INSERT ... VALUES} statements with bound parameters, which
+ * the server parses and plans batch by batch. {@link #INFILE} streams generated rows as tab-separated
+ * text through {@code LOAD DATA LOCAL INFILE}, MySQL's closest equivalent of PostgreSQL's COPY; it
+ * requires {@code local_infile=ON} on the server and {@code allowLoadLocalInfile=true} on the connection.
+ */
+public enum PatientRecordLoader {
+
+    BATCH,
+    INFILE;
+
+    /**
+     * Resolves a request parameter such as {@code batch} or {@code infile}.
+     */
+    public static PatientRecordLoader of(String name) {
+        try {
+            return valueOf(name.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Unsupported patient records loader '" + name + "', expected batch or infile", e);
+        }
+    }
+}
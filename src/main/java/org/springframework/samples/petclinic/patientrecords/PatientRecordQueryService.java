@@ -0,0 +1,153 @@
+package org.springframework.samples.petclinic.patientrecords;
+
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.context.annotation.Profile;
+import org.springframework.samples.petclinic.model.PatientRecord;
+import org.springframework.samples.petclinic.system.ExportReader;
+import org.springframework.samples.petclinic.system.NdjsonStreamWriter;
+import org.springframework.samples.petclinic.system.QueryResultCache;
+import org.springframework.samples.petclinic.system.ResultSetJsonStreamer;
+import org.springframework.samples.petclinic.system.StatelessScanner;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.persistence.PersistenceContext;
+import javax.sql.DataSource;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Stream;
+
+/**
+ * Keyset-paginated reads of patient_records by weight. A page is
+ * {@code WHERE patient_weight = ? AND id > ? ORDER BY id LIMIT n}, which idx_patient_weight_covering
+ * answers as an index range scan already in id order; unless medical_notes is requested the rows
+ * are read from the index alone. Rows are streamed to the client as JSON instead of being materialised,
+ * and pages are kept in the {@link QueryResultCache}.
+ */
+@Service
+@Profile("mysql")
+public class PatientRecordQueryService {
+
+    public static final int MAX_PAGE_SIZE = 10_000;
+
+    // Same criteria as PatientRecordRepository.findByComplexCriteria
+    private static final String COMPLEX_CRITERIA_HQL =
+        "SELECT pr FROM PatientRecord pr WHERE pr.treatmentType = :treatmentType " +
+        "AND pr.patientWeight >= :minWeight AND pr.patientWeight <= :maxWeight " +
+        "AND pr.visitDate >= :startDate AND pr.visitDate < :endDate " +
+        "AND pr.treatmentCompleted = :treatmentCompleted";
+
+    // Column projection whitelist, in table order; "id" is always returned since it is the page cursor
+    static final List<String> COLUMNS = List.of(
+        "id", "treatment_type", "patient_weight", "visit_date", "treatment_completed", "medical_notes");
+
+    private final DataSource dataSource;
+    private final ResultSetJsonStreamer streamer;
+    private final QueryResultCache cache;
+    private final PatientRecordRepository repository;
+    private final NdjsonStreamWriter ndjsonWriter;
+    private final TransactionTemplate readOnlyTransaction;
+    private final StatelessScanner statelessScanner;
+
+    @PersistenceContext(unitName = "mysql")
+    private EntityManager entityManager;
+
+    public PatientRecordQueryService(@Qualifier("mysqlDataSource") DataSource dataSource,
+                                     ResultSetJsonStreamer streamer, QueryResultCache cache,
+                                     PatientRecordRepository repository, NdjsonStreamWriter ndjsonWriter,
+                                     @Qualifier("mysqlTransactionManager") PlatformTransactionManager transactionManager,
+                                     @Qualifier("mysqlEntityManagerFactory") EntityManagerFactory entityManagerFactory) {
+        this.dataSource = dataSource;
+        this.streamer = streamer;
+        this.cache = cache;
+        this.repository = repository;
+        this.ndjsonWriter = ndjsonWriter;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.statelessScanner = new StatelessScanner(entityManagerFactory);
+    }
+
+    /**
+     * Returns a body that streams one page of records with the given weight.
+     *
+     * @param afterId only rows with a greater id are returned; pass the last id of the previous page
+     * @param columns columns to return, or empty for all of them
+     * @throws IllegalArgumentException if the page size is out of range or a column is unknown
+     */
+    public StreamingResponseBody queryRecords(int patientWeight, long afterId, int pageSize, List<String> columns,
+                                              int repetitions) {
+        if (pageSize <= 0 || pageSize > MAX_PAGE_SIZE) {
+            throw new IllegalArgumentException("Page size must be between 1 and " + MAX_PAGE_SIZE + ".");
+        }
+        if (repetitions <= 0) {
+            throw new IllegalArgumentException("Repetitions must be a positive integer.");
+        }
+        String sql = "SELECT " + String.join(", ", projection(columns)) +
+            " FROM patient_records WHERE patient_weight = ? AND id > ? ORDER BY id LIMIT ?";
+        List<Object> args = List.of(patientWeight, afterId, pageSize);
+        return cache.stream(PatientRecordDataService.TABLE, sql, args,
+            out -> streamer.stream(dataSource, sql, args, ResultSetJsonStreamer.MYSQL_STREAMING_FETCH_SIZE,
+                repetitions - 1, out));
+    }
+
+    /**
+     * Returns a body that writes every record matching the {@link PatientRecordRepository#findByComplexCriteria}
+     * criteria as NDJSON, streaming them row by row in a read-only transaction.
+     */
+    public StreamingResponseBody exportRecords(String treatmentType, int minWeight, int maxWeight,
+                                               LocalDateTime startDate, LocalDateTime endDate, boolean treatmentCompleted,
+                                               ExportReader reader) {
+        if (!startDate.isBefore(endDate)) {
+            throw new IllegalArgumentException("startDate must be before endDate.");
+        }
+        if (reader == ExportReader.STATELESS) {
+            Map<String, Object> parameters = Map.of("treatmentType", treatmentType, "minWeight", minWeight,
+                "maxWeight", maxWeight, "startDate", startDate, "endDate", endDate, "treatmentCompleted", treatmentCompleted);
+            return out -> {
+                try (Stream<PatientRecord> records = statelessScanner.stream(COMPLEX_CRITERIA_HQL, PatientRecord.class,
+                        parameters, ResultSetJsonStreamer.MYSQL_STREAMING_FETCH_SIZE)) {
+                    ndjsonWriter.write(records, out);
+                }
+            };
+        }
+        return out -> readOnlyTransaction.executeWithoutResult(status -> {
+            try (Stream<PatientRecord> records = repository.streamByComplexCriteria(treatmentType, minWeight,
+                    maxWeight, startDate, endDate, treatmentCompleted)) {
+                ndjsonWriter.write(records, entityManager, out);
+            }
+        });
+    }
+
+    static List<String> projection(List<String> columns) {
+        if (columns == null || columns.isEmpty()) {
+            return COLUMNS;
+        }
+        Set<String> requested = new LinkedHashSet<>();
+        for (String column : columns) {
+            String name = column.trim().toLowerCase(Locale.ROOT);
+            if (name.isEmpty()) {
+                continue;
+            }
+            if (!COLUMNS.contains(name)) {
+                throw new IllegalArgumentException("Unknown column '" + column.trim() + "'. Allowed columns: " + COLUMNS + ".");
+            }
+            requested.add(name);
+        }
+        List<String> projection = new ArrayList<>(COLUMNS.size());
+        for (String column : COLUMNS) {
+            if (column.equals("id") || requested.contains(column)) {
+                projection.add(column);
+            }
+        }
+        return projection;
+    }
+}
@@ -2,12 +2,16 @@ package org.springframework.samples.petclinic.patientrecords;
 
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.samples.petclinic.model.PatientRecord;
 import org.springframework.stereotype.Repository;
 
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.stream.Stream;
 
 @Repository
 public interface PatientRecordRepository extends JpaRepository<PatientRecord, Integer> {
@@ -25,6 +29,29 @@ public interface PatientRecordRepository extends JpaRepository<PatientRecord, In
         @Param("treatmentCompleted") Boolean treatmentCompleted
     );
 
+    /**
+     * Same criteria as {@link #findByComplexCriteria}, streamed row by row instead of loaded at once.
+     * Connector/J only streams with a fetch size of Integer.MIN_VALUE; any other value buffers the
+     * whole result. Must be consumed (and closed) inside a transaction; the entities are read-only.
+     */
+    @Query("SELECT pr FROM PatientRecord pr WHERE pr.treatmentType = :treatmentType " +
+           "AND pr.patientWeight >= :minWeight AND pr.patientWeight <= :maxWeight " +
+           "AND pr.visitDate >= :startDate AND pr.visitDate < :endDate " +
+           "AND pr.treatmentCompleted = :treatmentCompleted")
+    @QueryHints({
+        @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "-2147483648"),
+        @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"),
+        @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "false")
+    })
+    Stream<PatientRecord> streamByComplexCriteria(
+        @Param("treatmentType") String treatmentType,
+        @Param("minWeight") Integer minWeight,
+        @Param("maxWeight") Integer maxWeight,
+        @Param("startDate") LocalDateTime startDate,
+        @Param("endDate") LocalDateTime endDate,
+        @Param("treatmentCompleted") Boolean treatmentCompleted
+    );
+
     @Query("SELECT COUNT(1) FROM PatientRecord pr WHERE pr.treatmentType = :treatmentType")
     int countRecordsByTreatmentType(@Param("treatmentType") String treatmentType);
 
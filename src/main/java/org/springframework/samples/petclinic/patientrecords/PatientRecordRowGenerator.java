@@ -0,0 +1,45 @@
+package org.springframework.samples.petclinic.patientrecords;
+
+import org.springframework.samples.petclinic.model.PatientRecord;
+
+import java.time.LocalDateTime;
+import java.util.Locale;
+
+/**
+ * Produces synthetic patient_records rows for the bulk loaders. Implementations are not
+ * thread-safe; each loader creates its own instance from an explicit seed so that runs are
+ * reproducible and parallel loaders never share a random source.
+ */
+interface PatientRecordRowGenerator {
+
+    String FAKER = "faker";
+    String SYNTHETIC = "synthetic";
+
+    /**
+     * Refills the given (detached, never persisted) record with the next generated row.
+     */
+    void fill(PatientRecord record);
+
+    /**
+     * Creates a generator of the given kind whose visit dates fall in {@code [from, to)}.
+     * @param kind {@value #FAKER} or {@value #SYNTHETIC}
+     */
+    static PatientRecordRowGenerator create(String kind, long seed, LocalDateTime from, LocalDateTime to) {
+        return switch (normalize(kind)) {
+            case FAKER -> new FakerPatientRecordGenerator(seed, from, to);
+            default -> new SyntheticPatientRecordGenerator(seed, from, to);
+        };
+    }
+
+    /**
+     * Validates a generator kind from a request or property and returns its canonical name.
+     */
+    static String normalize(String kind) {
+        String normalized = kind.trim().toLowerCase(Locale.ROOT);
+        if (!FAKER.equals(normalized) && !SYNTHETIC.equals(normalized)) {
+            throw new IllegalArgumentException(
+                "Unsupported row generator '" + kind + "', expected " + FAKER + " or " + SYNTHETIC);
+        }
+        return normalized;
+    }
+}
@@ -0,0 +1,192 @@
+package org.springframework.samples.petclinic.patientrecords;
+
+import org.springframework.samples.petclinic.jobs.JobProgress;
+import org.springframework.samples.petclinic.model.PatientRecord;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.LocalDateTime;
+
+/**
+ * Generates patient records on demand and serves them as tab-separated rows in the default
+ * {@code LOAD DATA} text format (fields escaped with backslash, {@code \N} for NULL, booleans as 0/1).
+ * Rows are encoded one at a time into a reusable byte buffer as the driver reads, so the whole load is
+ * never held in memory. Characters are UTF-8 encoded in place.
+ */
+final class PatientRecordTsvInputStream extends InputStream {
+
+    private static final int DEFAULT_BUFFER_SIZE = 64 * 1024;
+    // Rows between progress reports and cancellation checks
+    private static final int REPORT_EVERY = 10_000;
+
+    private final PatientRecordRowGenerator generator;
+    private final int totalRows;
+    private final JobProgress progress;
+    private final PatientRecord record = new PatientRecord();
+
+    private byte[] buffer = new byte[DEFAULT_BUFFER_SIZE];
+    private int position;
+    private int limit;
+    private int generatedRows;
+    private int unreportedRows;
+
+    PatientRecordTsvInputStream(PatientRecordRowGenerator generator, int totalRows, JobProgress progress) {
+        this.generator = generator;
+        this.totalRows = totalRows;
+        this.progress = progress;
+    }
+
+    int generatedRows() {
+        return generatedRows;
+    }
+
+    @Override
+    public int read() throws IOException {
+        if (!fill()) {
+            return -1;
+        }
+        return buffer[position++] & 0xFF;
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException {
+        if (len == 0) {
+            return 0;
+        }
+        if (!fill()) {
+            return -1;
+        }
+        int n = Math.min(len, limit - position);
+        System.arraycopy(buffer, position, b, off, n);
+        position += n;
+        return n;
+    }
+
+    /**
+     * Encodes rows until the buffer holds unread data; returns {@code false} once every row has been read.
+     */
+    private boolean fill() throws IOException {
+        if (position < limit) {
+            return true;
+        }
+        position = 0;
+        limit = 0;
+        while (generatedRows < totalRows && limit < buffer.length / 2) {
+            generator.fill(record);
+            encodeRow();
+            generatedRows++;
+            if (++unreportedRows == REPORT_EVERY || generatedRows == totalRows) {
+                report();
+            }
+        }
+        return limit > 0;
+    }
+
+    private void report() throws IOException {
+        if (progress.isCancelled()) {
+            // The driver aborts the LOAD DATA statement when the stream fails
+            throw new IOException("Patient records load was cancelled");
+        }
+        progress.advance(unreportedRows);
+        unreportedRows = 0;
+    }
+
+    private void encodeRow() {
+        writeText(record.getTreatmentType());
+        writeByte('\t');
+        writeInt(record.getPatientWeight());
+        writeByte('\t');
+        writeTimestamp(record.getVisitDate());
+        writeByte('\t');
+        writeByte(Boolean.TRUE.equals(record.getTreatmentCompleted()) ? '1' : '0');
+        writeByte('\t');
+        writeText(record.getMedicalNotes());
+        writeByte('\n');
+    }
+
+    private void writeText(String value) {
+        if (value == null) {
+            writeByte('\\');
+            writeByte('N');
+            return;
+        }
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '\\' -> { writeByte('\\'); writeByte('\\'); }
+                case '\t' -> { writeByte('\\'); writeByte('t'); }
+                case '\n' -> { writeByte('\\'); writeByte('n'); }
+                case '\r' -> { writeByte('\\'); writeByte('r'); }
+                case '\0' -> { writeByte('\\'); writeByte('0'); }
+                default -> {
+                    if (c < 0x80) {
+                        writeByte(c);
+                    } else if (c < 0x800) {
+                        writeByte(0xC0 | (c >> 6));
+                        writeByte(0x80 | (c & 0x3F));
+                    } else if (Character.isHighSurrogate(c) && i + 1 < value.length()
+                            && Character.isLowSurrogate(value.charAt(i + 1))) {
+                        int codePoint = Character.toCodePoint(c, value.charAt(++i));
+                        writeByte(0xF0 | (codePoint >> 18));
+                        writeByte(0x80 | ((codePoint >> 12) & 0x3F));
+                        writeByte(0x80 | ((codePoint >> 6) & 0x3F));
+                        writeByte(0x80 | (codePoint & 0x3F));
+                    } else if (Character.isSurrogate(c)) {
+                        writeByte('?');
+                    } else {
+                        writeByte(0xE0 | (c >> 12));
+                        writeByte(0x80 | ((c >> 6) & 0x3F));
+                        writeByte(0x80 | (c & 0x3F));
+                    }
+                }
+            }
+        }
+    }
+
+    private void writeInt(int value) {
+        String digits = Integer.toString(value);
+        for (int i = 0; i < digits.length(); i++) {
+            writeByte(digits.charAt(i));
+        }
+    }
+
+    /**
+     * {@code yyyy-MM-dd HH:mm:ss}, the form MySQL parses for TIMESTAMP columns.
+     */
+    private void writeTimestamp(LocalDateTime value) {
+        writeDigits(value.getYear(), 4);
+        writeByte('-');
+        writeDigits(value.getMonthValue(), 2);
+        writeByte('-');
+        writeDigits(value.getDayOfMonth(), 2);
+        writeByte(' ');
+        writeDigits(value.getHour(), 2);
+        writeByte(':');
+        writeDigits(value.getMinute(), 2);
+        writeByte(':');
+        writeDigits(value.getSecond(), 2);
+    }
+
+    private void writeDigits(int value, int width) {
+        ensureCapacity(width);
+        for (int i = limit + width - 1; i >= limit; i--) {
+            buffer[i] = (byte) ('0' + value % 10);
+            value /= 10;
+        }
+        limit += width;
+    }
+
+    private void writeByte(int b) {
+        ensureCapacity(1);
+        buffer[limit++] = (byte) b;
+    }
+
+    private void ensureCapacity(int bytes) {
+        if (limit + bytes > buffer.length) {
+            // A single row larger than half the buffer; grow rather than split it
+            byte[] larger = new byte[Math.max(buffer.length * 2, limit + bytes)];
+            System.arraycopy(buffer, 0, larger, 0, limit);
+            buffer = larger;
+        }
+    }
+}
@@ -0,0 +1,65 @@
+package org.springframework.samples.petclinic.patientrecords;
+
+import com.github.javafaker.Faker;
+import org.springframework.samples.petclinic.model.PatientRecord;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+import java.util.SplittableRandom;
+
+/**
+ * Cheap generator that keeps the shape of the Faker records without their per-row cost.
+ * <p>
+ * Veterinary notes are drawn from per-treatment pools built once per JVM from a fixed seed,
+ * and visit dates are derived arithmetically from the window, so a row costs a handful of
+ * {@link SplittableRandom} calls.
+ */
+final class SyntheticPatientRecordGenerator implements PatientRecordRowGenerator {
+
+    private static final List<String> TREATMENT_TYPES = PatientRecordDataService.TREATMENT_TYPES;
+
+    private final SplittableRandom random;
+    private final long fromEpochSecond;
+    private final long spanSeconds;
+
+    SyntheticPatientRecordGenerator(long seed, LocalDateTime from, LocalDateTime to) {
+        this.random = new SplittableRandom(seed);
+        this.fromEpochSecond = from.toEpochSecond(ZoneOffset.UTC);
+        this.spanSeconds = Math.max(1, to.toEpochSecond(ZoneOffset.UTC) - fromEpochSecond);
+    }
+
+    @Override
+    public void fill(PatientRecord record) {
+        int treatment = random.nextInt(TREATMENT_TYPES.size());
+        String[] notes = NotesPool.NOTES[treatment];
+        record.setTreatmentType(TREATMENT_TYPES.get(treatment));
+        record.setPatientWeight(random.nextInt(500, 50_000));
+        record.setVisitDate(LocalDateTime.ofEpochSecond(fromEpochSecond + random.nextLong(spanSeconds), 0, ZoneOffset.UTC));
+        record.setTreatmentCompleted(random.nextBoolean());
+        record.setMedicalNotes(notes[random.nextInt(notes.length)]);
+    }
+
+    /**
+     * Lazily built pool of notes per treatment type, indexed like {@code TREATMENT_TYPES}.
+     */
+    private static final class NotesPool {
+
+        private static final int NOTES_PER_TREATMENT = 256;
+        private static final long SEED = 0x5EEDL;
+        private static final String[][] NOTES = build();
+
+        private static String[][] build() {
+            Faker faker = new Faker(new Locale("en-US"), new Random(SEED));
+            String[][] notes = new String[TREATMENT_TYPES.size()][NOTES_PER_TREATMENT];
+            for (int t = 0; t < notes.length; t++) {
+                for (int i = 0; i < NOTES_PER_TREATMENT; i++) {
+                    notes[t][i] = FakerPatientRecordGenerator.generateVeterinaryNotes(faker, TREATMENT_TYPES.get(t));
+                }
+            }
+            return notes;
+        }
+    }
+}
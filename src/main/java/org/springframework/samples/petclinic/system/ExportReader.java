@@ -0,0 +1,24 @@
+package org.springframework.samples.petclinic.system;
+
+import java.util.Locale;
+
+/**
+ * How bulk exports read their rows: {@link #JPA} streams managed entities through the persistence
+ * context and detaches them, {@link #STATELESS} scrolls them through a {@link StatelessScanner}.
+ */
+public enum ExportReader {
+
+    JPA,
+    STATELESS;
+
+    /**
+     * Resolves a request parameter such as {@code jpa} or {@code stateless}.
+     */
+    public static ExportReader of(String name) {
+        try {
+            return valueOf(name.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Unsupported export reader '" + name + "', expected jpa or stateless", e);
+        }
+    }
+}
@@ -0,0 +1,71 @@
+package org.springframework.samples.petclinic.system;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import jakarta.persistence.EntityManager;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.Iterator;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+/**
+ * Writes a stream of rows as newline-delimited JSON, one object per line. Rows read through JPA are
+ * detached once written, so the persistence context stays empty and memory use does not depend on
+ * the number of rows; the caller owns the transaction and closes the stream.
+ */
+@Component
+public class NdjsonStreamWriter {
+
+    public static final String MEDIA_TYPE = "application/x-ndjson";
+
+    private final ObjectWriter writer;
+    private final ObjectMapper objectMapper;
+
+    public NdjsonStreamWriter(ObjectMapper objectMapper) {
+        this.objectMapper = objectMapper;
+        // Let the generator's buffer decide when to flush instead of flushing after every row
+        this.writer = objectMapper.writer().without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+    }
+
+    /**
+     * Writes managed entities, detaching each one from {@code entityManager} once it is written.
+     *
+     * @return the number of rows written
+     */
+    public <T> long write(Stream<T> rows, EntityManager entityManager, OutputStream out) {
+        return write(rows, entityManager::detach, out);
+    }
+
+    /**
+     * Writes rows that are not tracked by a persistence context, e.g. from a {@link StatelessScanner}.
+     *
+     * @return the number of rows written
+     */
+    public <T> long write(Stream<T> rows, OutputStream out) {
+        return write(rows, row -> { }, out);
+    }
+
+    private <T> long write(Stream<T> rows, Consumer<? super T> afterWrite, OutputStream out) {
+        long count = 0;
+        try (JsonGenerator json = objectMapper.getFactory().createGenerator(out)) {
+            // Leave the response stream open; the container closes it
+            json.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            for (Iterator<T> it = rows.iterator(); it.hasNext(); ) {
+                T row = it.next();
+                writer.writeValue(json, row);
+                json.writeRaw('\n');
+                afterWrite.accept(row);
+                count++;
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Error streaming NDJSON export: " + e.getMessage(), e);
+        }
+        return count;
+    }
+}
@@ -0,0 +1,175 @@
+package org.springframework.samples.petclinic.system;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Caches serialized query results keyed by table, statement and parameters, so repeated lookups are
+ * served from memory instead of re-running the SQL. Entries are weighed by their size in bytes, so
+ * the cache holds at most {@code app.query-cache.max-bytes} of results, and expire after
+ * {@code app.query-cache.ttl}.
+ * <p>
+ * A miss streams the query to the client as usual and keeps a copy of what was written; results
+ * larger than {@code app.query-cache.max-entry-bytes} are streamed but not kept. Code that modifies a
+ * table must call {@link #invalidate(String)}. Every invalidation also bumps the table's generation,
+ * so a query that was already running when the data changed never stores its (stale) result.
+ */
+@Component
+public class QueryResultCache {
+
+    // Rough per-entry overhead of the key, the node and the array header
+    private static final int ENTRY_OVERHEAD_BYTES = 256;
+
+    private record Key(String table, String sql, List<?> args) {
+    }
+
+    private final boolean enabled;
+    private final int maxEntryBytes;
+    private final Cache<Key, byte[]> cache;
+    private final Map<String, AtomicLong> generations = new ConcurrentHashMap<>();
+
+    public QueryResultCache(@Value("${app.query-cache.enabled:true}") boolean enabled,
+                            @Value("${app.query-cache.max-bytes:67108864}") long maxBytes,
+                            @Value("${app.query-cache.max-entry-bytes:4194304}") int maxEntryBytes,
+                            @Value("${app.query-cache.ttl:60s}") Duration ttl) {
+        this.enabled = enabled;
+        this.maxEntryBytes = maxEntryBytes;
+        this.cache = Caffeine.newBuilder()
+            .maximumWeight(maxBytes)
+            .weigher((Key key, byte[] value) -> value.length + key.sql().length() + ENTRY_OVERHEAD_BYTES)
+            .expireAfterWrite(ttl)
+            .recordStats()
+            .build();
+    }
+
+    /**
+     * Returns a body that writes the cached result for the statement, or runs {@code query} and caches what it writes.
+     *
+     * @param table table the statement reads; used for invalidation
+     * @param query writes the result of executing {@code sql} with {@code args}
+     */
+    public StreamingResponseBody stream(String table, String sql, List<?> args, StreamingResponseBody query) {
+        if (!enabled) {
+            return query;
+        }
+        Key key = new Key(table, sql, List.copyOf(args));
+        return out -> {
+            byte[] cached = cache.getIfPresent(key);
+            if (cached != null) {
+                out.write(cached);
+                return;
+            }
+            long generation = generation(table).get();
+            TeeOutputStream tee = new TeeOutputStream(out, maxEntryBytes);
+            query.writeTo(tee);
+            byte[] result = tee.captured();
+            if (result != null && generation(table).get() == generation) {
+                cache.put(key, result);
+                if (generation(table).get() != generation) {
+                    // Invalidated while storing; drop what may already be stale
+                    cache.invalidate(key);
+                }
+            }
+        };
+    }
+
+    /**
+     * Drops every cached result that reads {@code table}.
+     */
+    public void invalidate(String table) {
+        generation(table).incrementAndGet();
+        cache.asMap().keySet().removeIf(key -> key.table().equals(table));
+    }
+
+    /**
+     * Like {@link #invalidate(String)}, but when called inside a transaction invalidates again once it
+     * completes, so results read from the old data before the commit do not survive it.
+     */
+    public void invalidateOnCompletion(String table) {
+        invalidate(table);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    invalidate(table);
+                }
+            });
+        }
+    }
+
+    public CacheStats stats() {
+        return cache.stats();
+    }
+
+    private AtomicLong generation(String table) {
+        return generations.computeIfAbsent(table, t -> new AtomicLong());
+    }
+
+    /**
+     * Passes everything through and keeps a copy until it grows past the limit.
+     */
+    private static final class TeeOutputStream extends OutputStream {
+
+        private final OutputStream out;
+        private final int limit;
+        private ByteArrayOutputStream copy = new ByteArrayOutputStream();
+
+        TeeOutputStream(OutputStream out, int limit) {
+            this.out = out;
+            this.limit = limit;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            out.write(b);
+            if (copy != null) {
+                copy.write(b);
+                checkLimit();
+            }
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            out.write(b, off, len);
+            if (copy != null) {
+                copy.write(b, off, len);
+                checkLimit();
+            }
+        }
+
+        @Override
+        public void flush() throws IOException {
+            out.flush();
+        }
+
+        @Override
+        public void close() {
+            // The response stream is closed by the container, not by the JSON generator
+        }
+
+        byte[] captured() {
+            return copy != null ? copy.toByteArray() : null;
+        }
+
+        private void checkLimit() {
+            if (copy.size() > limit) {
+                copy = null;
+            }
+        }
+    }
+}
@@ -0,0 +1,154 @@
+package org.springframework.samples.petclinic.system;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.util.List;
+
+/**
+ * Streams a query result as a JSON array of objects straight from the {@link ResultSet} to the
+ * response, one row at a time. Rows are never collected into maps or lists, so heap use is bounded
+ * by the JDBC fetch size rather than by the size of the result.
+ *
+ * <p>The statement runs in a read-only, non-autocommit transaction on a dedicated connection:
+ * PostgreSQL only honours the fetch size (server-side cursor) outside autocommit mode. MySQL
+ * Connector/J ignores positive fetch sizes and buffers the whole result unless it is given
+ * {@link #MYSQL_STREAMING_FETCH_SIZE}.
+ */
+@Component
+public class ResultSetJsonStreamer {
+
+    public static final int DEFAULT_FETCH_SIZE = 1000;
+
+    // Connector/J's marker for row-by-row streaming on a forward-only, read-only statement
+    public static final int MYSQL_STREAMING_FETCH_SIZE = Integer.MIN_VALUE;
+
+    private final ObjectMapper objectMapper;
+
+    public ResultSetJsonStreamer(ObjectMapper objectMapper) {
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * Runs {@code sql} and writes every row to {@code out} as a JSON object keyed by column label.
+     *
+     * @param warmups number of extra executions whose rows are read and discarded before the
+     * streamed one; used by the load-test endpoints that repeat the same query
+     */
+    public void stream(DataSource dataSource, String sql, List<?> args, int fetchSize, int warmups,
+                       OutputStream out) throws IOException {
+        try (Connection connection = dataSource.getConnection()) {
+            boolean autoCommit = connection.getAutoCommit();
+            connection.setAutoCommit(false);
+            connection.setReadOnly(true);
+            try (PreparedStatement statement = connection.prepareStatement(sql,
+                    ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY)) {
+                statement.setFetchSize(fetchSize);
+                for (int i = 0; i < args.size(); i++) {
+                    statement.setObject(i + 1, args.get(i));
+                }
+                for (int i = 0; i < warmups; i++) {
+                    try (ResultSet rs = statement.executeQuery()) {
+                        while (rs.next()) {
+                            // drain only
+                        }
+                    }
+                }
+                try (ResultSet rs = statement.executeQuery()) {
+                    writeArray(rs, out);
+                }
+                connection.commit();
+            } catch (SQLException | IOException | RuntimeException e) {
+                connection.rollback();
+                throw e;
+            } finally {
+                connection.setReadOnly(false);
+                connection.setAutoCommit(autoCommit);
+            }
+        } catch (SQLException e) {
+            throw new IOException("Error streaming query results: " + e.getMessage(), e);
+        }
+    }
+
+    private void writeArray(ResultSet rs, OutputStream out) throws SQLException, IOException {
+        ResultSetMetaData meta = rs.getMetaData();
+        int columnCount = meta.getColumnCount();
+        SerializedString[] names = new SerializedString[columnCount];
+        int[] types = new int[columnCount];
+        for (int i = 0; i < columnCount; i++) {
+            names[i] = new SerializedString(meta.getColumnLabel(i + 1));
+            types[i] = meta.getColumnType(i + 1);
+        }
+
+        try (JsonGenerator json = objectMapper.getFactory().createGenerator(out)) {
+            json.writeStartArray();
+            while (rs.next()) {
+                json.writeStartObject();
+                for (int i = 0; i < columnCount; i++) {
+                    json.writeFieldName(names[i]);
+                    writeValue(json, rs, i + 1, types[i]);
+                }
+                json.writeEndObject();
+            }
+            json.writeEndArray();
+        }
+    }
+
+    private void writeValue(JsonGenerator json, ResultSet rs, int column, int type) throws SQLException, IOException {
+        switch (type) {
+            case Types.INTEGER, Types.SMALLINT, Types.TINYINT -> {
+                int value = rs.getInt(column);
+                if (rs.wasNull()) {
+                    json.writeNull();
+                } else {
+                    json.writeNumber(value);
+                }
+            }
+            case Types.BIGINT -> {
+                long value = rs.getLong(column);
+                if (rs.wasNull()) {
+                    json.writeNull();
+                } else {
+                    json.writeNumber(value);
+                }
+            }
+            case Types.BOOLEAN, Types.BIT -> {
+                boolean value = rs.getBoolean(column);
+                if (rs.wasNull()) {
+                    json.writeNull();
+                } else {
+                    json.writeBoolean(value);
+                }
+            }
+            case Types.CHAR, Types.VARCHAR, Types.LONGVARCHAR, Types.NVARCHAR, Types.LONGNVARCHAR, Types.CLOB -> {
+                String value = rs.getString(column);
+                if (value == null) {
+                    json.writeNull();
+                } else {
+                    json.writeString(value);
+                }
+            }
+            case Types.TIMESTAMP -> {
+                Timestamp value = rs.getTimestamp(column);
+                if (value == null) {
+                    json.writeNull();
+                } else {
+                    json.writeObject(value.toLocalDateTime());
+                }
+            }
+            default -> json.writeObject(rs.getObject(column));
+        }
+    }
+}
@@ -0,0 +1,88 @@
+package org.springframework.samples.petclinic.system;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.ScrollMode;
+import org.hibernate.ScrollableResults;
+import org.hibernate.SessionFactory;
+import org.hibernate.StatelessSession;
+import org.hibernate.Transaction;
+import org.hibernate.query.SelectionQuery;
+
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Read-only bulk scans through a Hibernate {@link StatelessSession}. Entities are materialised
+ * straight from a forward-only scrollable result: there is no persistence context, no snapshot
+ * for dirty checking and nothing to detach, so per-row cost is the row mapping alone.
+ */
+public final class StatelessScanner {
+
+    private final SessionFactory sessionFactory;
+
+    public StatelessScanner(EntityManagerFactory entityManagerFactory) {
+        this.sessionFactory = entityManagerFactory.unwrap(SessionFactory.class);
+    }
+
+    /**
+     * Runs {@code hql} and returns its rows as a lazily scrolled stream. The stream owns a session,
+     * a connection and a transaction (PostgreSQL only uses a cursor outside autocommit), so it must be closed.
+     *
+     * @param fetchSize rows per round trip; {@link ResultSetJsonStreamer#MYSQL_STREAMING_FETCH_SIZE} on MySQL
+     */
+    public <T> Stream<T> stream(String hql, Class<T> type, Map<String, ?> parameters, int fetchSize) {
+        StatelessSession session = sessionFactory.openStatelessSession();
+        try {
+            Transaction transaction = session.beginTransaction();
+            SelectionQuery<T> query = session.createSelectionQuery(hql, type);
+            parameters.forEach(query::setParameter);
+            query.setFetchSize(fetchSize);
+            ScrollableResults<T> results = query.scroll(ScrollMode.FORWARD_ONLY);
+            return StreamSupport.stream(Spliterators.spliteratorUnknownSize(new ScrollIterator<>(results),
+                    Spliterator.ORDERED | Spliterator.NONNULL), false)
+                .onClose(() -> {
+                    try {
+                        results.close();
+                        transaction.commit();
+                    } finally {
+                        session.close();
+                    }
+                });
+        } catch (RuntimeException e) {
+            session.close();
+            throw e;
+        }
+    }
+
+    private static final class ScrollIterator<T> implements Iterator<T> {
+
+        private final ScrollableResults<T> results;
+        private Boolean hasNext;
+
+        ScrollIterator(ScrollableResults<T> results) {
+            this.results = results;
+        }
+
+        @Override
+        public boolean hasNext() {
+            if (hasNext == null) {
+                hasNext = results.next();
+            }
+            return hasNext;
+        }
+
+        @Override
+        public T next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            hasNext = null;
+            return results.get();
+        }
+    }
+}
@@ -11,5 +11,27 @@ CREATE TABLE IF NOT EXISTS patient_records (
     
     INDEX idx_treatment_type (treatment_type),
     INDEX idx_visit_date (visit_date),
-    INDEX idx_treatment_completed (treatment_completed)
+    INDEX idx_treatment_completed (treatment_completed),
+    -- Covers query-records: WHERE patient_weight = ? AND id > ? ORDER BY id, without reading the rows
+    INDEX idx_patient_weight_covering (patient_weight, id, treatment_type, visit_date, treatment_completed)
 ) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci;
+
+-- Restartable patient records loads: one row per load, one checkpoint per committed chunk
+CREATE TABLE IF NOT EXISTS patient_record_loads (
+    load_id CHAR(36) PRIMARY KEY,
+    total_rows INT NOT NULL,
+    chunk_rows INT NOT NULL,
+    seed BIGINT NOT NULL,
+    generator VARCHAR(32) NOT NULL,
+    loader VARCHAR(16) NOT NULL,
+    window_end TIMESTAMP NOT NULL,
+    created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP
+) ENGINE=InnoDB;
+
+CREATE TABLE IF NOT EXISTS patient_record_load_checkpoints (
+    load_id CHAR(36) NOT NULL,
+    chunk_no INT NOT NULL,
+    row_count INT NOT NULL,
+    committed_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    PRIMARY KEY (load_id, chunk_no)
+) ENGINE=InnoDB;
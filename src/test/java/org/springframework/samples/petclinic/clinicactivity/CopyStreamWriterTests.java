@@ -0,0 +1,140 @@
+package org.springframework.samples.petclinic.clinicactivity;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.postgresql.copy.CopyIn;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.BDDMockito.willAnswer;
+import static org.mockito.Mockito.mock;
+
+/**
+ * Checks the bytes {@link CopyStreamWriter} hands to the COPY stream in the binary format.
+ */
+class CopyStreamWriterTests {
+
+    private final ByteArrayOutputStream sent = new ByteArrayOutputStream();
+
+    private CopyIn copyIn;
+
+    @BeforeEach
+    void setup() throws SQLException {
+        copyIn = mock(CopyIn.class);
+        willAnswer(invocation -> {
+            byte[] bytes = invocation.getArgument(0);
+            int offset = invocation.getArgument(1);
+            int length = invocation.getArgument(2);
+            sent.write(bytes, offset, length);
+            return null;
+        }).given(copyIn).writeToCopy(any(byte[].class), anyInt(), anyInt());
+    }
+
+    @Test
+    void writesPgcopyHeader() throws SQLException {
+        CopyStreamWriter writer = new CopyStreamWriter(copyIn);
+        writer.writeBinaryHeader();
+        writer.flush();
+
+        assertThat(sent.toByteArray()).containsExactly(
+            'P', 'G', 'C', 'O', 'P', 'Y', '\n', 0xFF, '\r', '\n', 0,
+            0, 0, 0, 0,
+            0, 0, 0, 0);
+    }
+
+    @Test
+    void writesLengthPrefixedFields() throws SQLException {
+        CopyStreamWriter writer = new CopyStreamWriter(copyIn);
+        writer.writeBinary(7).writeBinary(false).writeBinary("é").writeBinary((String) null);
+        writer.flush();
+
+        assertThat(sent.toByteArray()).containsExactly(
+            0, 0, 0, 4, 0, 0, 0, 7,
+            0, 0, 0, 1, 0,
+            // The length counts UTF-8 bytes, not chars
+            0, 0, 0, 2, 0xC3, 0xA9,
+            0xFF, 0xFF, 0xFF, 0xFF);
+    }
+
+    @Test
+    void writesTimestampsAsMicrosecondsSincePostgresEpoch() throws SQLException {
+        CopyStreamWriter writer = new CopyStreamWriter(copyIn);
+        writer.writeBinary(LocalDateTime.of(2000, 1, 1, 0, 0))
+            .writeBinary(LocalDateTime.of(2000, 1, 1, 0, 0, 1, 500_000_000))
+            .writeBinary(LocalDateTime.of(1999, 12, 31, 23, 59, 59))
+            .writeBinary((LocalDateTime) null);
+        writer.flush();
+
+        ByteBuffer bytes = ByteBuffer.wrap(sent.toByteArray());
+        assertThat(bytes.getInt()).isEqualTo(8);
+        assertThat(bytes.getLong()).isZero();
+        assertThat(bytes.getInt()).isEqualTo(8);
+        assertThat(bytes.getLong()).isEqualTo(1_500_000L);
+        assertThat(bytes.getInt()).isEqualTo(8);
+        assertThat(bytes.getLong()).isEqualTo(-1_000_000L);
+        assertThat(bytes.getInt()).isEqualTo(-1);
+        assertThat(bytes.hasRemaining()).isFalse();
+    }
+
+    @Test
+    void writesKnownRowInBinaryFormat() throws SQLException, IOException {
+        ActivityLogRow row = new ActivityLogRow();
+        row.activityType = "Check-up";
+        row.numericValue = 50_000;
+        row.eventTimestamp = LocalDateTime.of(2024, 3, 15, 10, 30, 0);
+        row.statusFlag = true;
+        row.payload = "Ünïcode ✓";
+
+        byte[] expected = expectedBinaryCopy(row);
+        assertThat(encode(row, 64 * 1024)).isEqualTo(expected);
+        // A buffer smaller than the row forces drains in the middle of fields
+        assertThat(encode(row, 32)).isEqualTo(expected);
+    }
+
+    private byte[] encode(ActivityLogRow row, int bufferSize) throws SQLException {
+        sent.reset();
+        CopyStreamWriter writer = new CopyStreamWriter(copyIn, bufferSize);
+        CopyFormat.BINARY.writeHeader(writer);
+        CopyFormat.BINARY.writeRow(writer, row);
+        CopyFormat.BINARY.writeTrailer(writer);
+        writer.flush();
+        return sent.toByteArray();
+    }
+
+    private static byte[] expectedBinaryCopy(ActivityLogRow row) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        out.write("PGCOPY\n".getBytes(StandardCharsets.US_ASCII));
+        out.write(new byte[] {(byte) 0xFF, '\r', '\n', 0});
+        out.writeInt(0);
+        out.writeInt(0);
+
+        out.writeShort(5);
+        byte[] type = row.activityType.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(type.length);
+        out.write(type);
+        out.writeInt(4);
+        out.writeInt(row.numericValue);
+        out.writeInt(8);
+        // 2024-03-15T10:30:00 is 8,840 days and 10.5 hours after 2000-01-01T00:00:00
+        out.writeLong((8_840L * 86_400 + 10 * 3_600 + 30 * 60) * 1_000_000L);
+        out.writeInt(1);
+        out.writeByte(1);
+        byte[] payload = row.payload.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(payload.length);
+        out.write(payload);
+
+        out.writeShort(-1);
+        out.flush();
+        return bytes.toByteArray();
+    }
+}
@@ -0,0 +1,101 @@
+package org.springframework.samples.petclinic.clinicfeedback;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Test class for {@link CircuitBreaker}
+ */
+class CircuitBreakerTests {
+
+	@Test
+	void opensAfterConsecutiveFailures() {
+		CircuitBreaker breaker = new CircuitBreaker(3, Duration.ofHours(1));
+
+		for (int i = 0; i < 2; i++) {
+			assertThat(breaker.tryAcquire()).isTrue();
+			breaker.onFailure();
+		}
+		assertThat(breaker.state()).isEqualTo(CircuitBreaker.State.CLOSED);
+
+		assertThat(breaker.tryAcquire()).isTrue();
+		breaker.onFailure();
+		assertThat(breaker.state()).isEqualTo(CircuitBreaker.State.OPEN);
+		assertThat(breaker.tryAcquire()).isFalse();
+	}
+
+	@Test
+	void successResetsTheFailureCount() {
+		CircuitBreaker breaker = new CircuitBreaker(2, Duration.ofHours(1));
+
+		breaker.tryAcquire();
+		breaker.onFailure();
+		breaker.tryAcquire();
+		breaker.onSuccess();
+		breaker.tryAcquire();
+		breaker.onFailure();
+
+		assertThat(breaker.state()).isEqualTo(CircuitBreaker.State.CLOSED);
+	}
+
+	@Test
+	void letsSingleTrialThroughOnceOpenDurationElapsed() {
+		CircuitBreaker breaker = open(Duration.ZERO);
+
+		assertThat(breaker.tryAcquire()).isTrue();
+		assertThat(breaker.state()).isEqualTo(CircuitBreaker.State.HALF_OPEN);
+		// Only the trial call is let through while it is in flight
+		assertThat(breaker.tryAcquire()).isFalse();
+		assertThat(breaker.tryAcquire()).isFalse();
+	}
+
+	@Test
+	void successfulTrialClosesTheCircuit() {
+		CircuitBreaker breaker = open(Duration.ZERO);
+
+		assertThat(breaker.tryAcquire()).isTrue();
+		breaker.onSuccess();
+
+		assertThat(breaker.state()).isEqualTo(CircuitBreaker.State.CLOSED);
+		assertThat(breaker.tryAcquire()).isTrue();
+		assertThat(breaker.tryAcquire()).isTrue();
+	}
+
+	@Test
+	void failedTrialReopensTheCircuit() {
+		CircuitBreaker breaker = open(Duration.ZERO);
+		assertThat(breaker.tryAcquire()).isTrue();
+
+		breaker.onFailure();
+
+		assertThat(breaker.state()).isEqualTo(CircuitBreaker.State.OPEN);
+		// The open duration starts again, after which there is a new single trial
+		assertThat(breaker.tryAcquire()).isTrue();
+		assertThat(breaker.state()).isEqualTo(CircuitBreaker.State.HALF_OPEN);
+		assertThat(breaker.tryAcquire()).isFalse();
+	}
+
+	@Test
+	void cancelledTrialFreesTheSlotWithoutCounting() {
+		CircuitBreaker breaker = open(Duration.ZERO);
+		assertThat(breaker.tryAcquire()).isTrue();
+
+		breaker.onCancelled();
+
+		assertThat(breaker.state()).isEqualTo(CircuitBreaker.State.HALF_OPEN);
+		assertThat(breaker.tryAcquire()).isTrue();
+		assertThat(breaker.tryAcquire()).isFalse();
+	}
+
+	private static CircuitBreaker open(Duration openDuration) {
+		CircuitBreaker breaker = new CircuitBreaker(1, openDuration);
+		breaker.tryAcquire();
+		breaker.onFailure();
+		assertThat(breaker.state()).isEqualTo(CircuitBreaker.State.OPEN);
+		return breaker;
+	}
+
+}
@@ -0,0 +1,183 @@
+package org.springframework.samples.petclinic.clinicfeedback;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.samples.petclinic.model.ClinicFeedback;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Test class for {@link FeedbackReadCache}
+ */
+class FeedbackReadCacheTests {
+
+	private final FeedbackReadCache cache = new FeedbackReadCache(true, Duration.ofMinutes(1), 1, 100);
+
+	private final ExecutorService callers = Executors.newCachedThreadPool();
+
+	@AfterEach
+	void shutdown() {
+		callers.shutdownNow();
+	}
+
+	@Test
+	void concurrentMissesShareOneLoad() throws Exception {
+		AtomicInteger loads = new AtomicInteger();
+		CountDownLatch loading = new CountDownLatch(1);
+		CountDownLatch release = new CountDownLatch(1);
+		Supplier<Long> loader = () -> {
+			loads.incrementAndGet();
+			loading.countDown();
+			await(release);
+			return 42L;
+		};
+
+		Future<Long> first = callers.submit(() -> cache.count(loader));
+		assertThat(loading.await(5, TimeUnit.SECONDS)).isTrue();
+		List<Future<Long>> waiting = new ArrayList<>();
+		for (int i = 0; i < 4; i++) {
+			waiting.add(callers.submit(() -> cache.count(loader)));
+		}
+		release.countDown();
+
+		assertThat(first.get(5, TimeUnit.SECONDS)).isEqualTo(42L);
+		for (Future<Long> other : waiting) {
+			assertThat(other.get(5, TimeUnit.SECONDS)).isEqualTo(42L);
+		}
+		assertThat(loads.get()).isEqualTo(1);
+	}
+
+	@Test
+	void failedLoadIsNotCached() {
+		assertThatThrownBy(() -> cache.count(() -> {
+			throw new IllegalStateException("FlaskDB down");
+		})).isInstanceOf(IllegalStateException.class);
+
+		AtomicInteger loads = new AtomicInteger();
+		assertThat(cache.count(() -> {
+			loads.incrementAndGet();
+			return 7L;
+		})).isEqualTo(7L);
+		assertThat(loads.get()).isEqualTo(1);
+	}
+
+	@Test
+	void callersWaitingOnAFailedLoadGetItsExceptionAndTheNextCallerRetries() throws Exception {
+		CountDownLatch loading = new CountDownLatch(1);
+		CountDownLatch release = new CountDownLatch(1);
+		Future<Long> first = callers.submit(() -> cache.count(() -> {
+			loading.countDown();
+			await(release);
+			throw new IllegalStateException("FlaskDB down");
+		}));
+		assertThat(loading.await(5, TimeUnit.SECONDS)).isTrue();
+		AtomicInteger otherLoads = new AtomicInteger();
+		AtomicReference<Throwable> waiterFailure = new AtomicReference<>();
+		Thread waiter = new Thread(() -> {
+			try {
+				cache.count(() -> (long) otherLoads.incrementAndGet());
+			} catch (Throwable e) {
+				waiterFailure.set(e);
+			}
+		});
+		waiter.start();
+		awaitParked(waiter);
+		release.countDown();
+
+		assertThatThrownBy(() -> first.get(5, TimeUnit.SECONDS)).isInstanceOf(ExecutionException.class)
+			.hasCauseInstanceOf(IllegalStateException.class);
+		waiter.join(5_000);
+		assertThat(waiterFailure.get()).isInstanceOf(IllegalStateException.class).hasMessage("FlaskDB down");
+		assertThat(otherLoads.get()).isZero();
+
+		assertThat(cache.count(() -> 8L)).isEqualTo(8L);
+	}
+
+	@Test
+	void errorInLoaderDoesNotLeaveTheEntryPending() {
+		assertThatThrownBy(() -> cache.count(() -> {
+			throw new LinkageError("broken class");
+		})).isInstanceOf(LinkageError.class);
+
+		assertThat(cache.count(() -> 3L)).isEqualTo(3L);
+	}
+
+	@Test
+	void invalidateDuringLoadKeepsItsResultFromBeingServed() throws Exception {
+		CountDownLatch loading = new CountDownLatch(1);
+		CountDownLatch release = new CountDownLatch(1);
+		Future<Long> inFlight = callers.submit(() -> cache.count(() -> {
+			loading.countDown();
+			await(release);
+			return 1L;
+		}));
+		assertThat(loading.await(5, TimeUnit.SECONDS)).isTrue();
+
+		cache.invalidate();
+		release.countDown();
+
+		// The caller that loaded still gets its own result
+		assertThat(inFlight.get(5, TimeUnit.SECONDS)).isEqualTo(1L);
+		AtomicInteger loads = new AtomicInteger();
+		assertThat(cache.count(() -> {
+			loads.incrementAndGet();
+			return 2L;
+		})).isEqualTo(2L);
+		assertThat(loads.get()).isEqualTo(1);
+	}
+
+	@Test
+	void cachesOnlyTheFirstPagesUpToTheMaximumSize() {
+		AtomicInteger loads = new AtomicInteger();
+		Supplier<List<ClinicFeedback>> loader = () -> {
+			loads.incrementAndGet();
+			return List.of();
+		};
+
+		cache.page(0, 20, loader);
+		cache.page(0, 20, loader);
+		assertThat(loads.get()).isEqualTo(1);
+
+		cache.page(1, 20, loader);
+		cache.page(1, 20, loader);
+		cache.page(0, 500, loader);
+		assertThat(loads.get()).isEqualTo(4);
+	}
+
+	/**
+	 * Waits until the thread blocks, which for a cache caller means it is joining another caller's load.
+	 */
+	private static void awaitParked(Thread thread) throws InterruptedException {
+		long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+		while (thread.getState() != Thread.State.WAITING) {
+			assertThat(System.nanoTime()).as("thread blocked in time").isLessThan(deadline);
+			Thread.sleep(1);
+		}
+	}
+
+	private static void await(CountDownLatch latch) {
+		try {
+			if (!latch.await(5, TimeUnit.SECONDS)) {
+				throw new IllegalStateException("Test latch was not released");
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IllegalStateException(e);
+		}
+	}
+
+}
@@ -0,0 +1,222 @@
+package org.springframework.samples.petclinic.clinicfeedback;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.samples.petclinic.model.ClinicFeedback;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.BDDMockito.willAnswer;
+import static org.mockito.BDDMockito.willReturn;
+import static org.mockito.Mockito.mock;
+
+/**
+ * Test class for {@link FeedbackWriteBehindBuffer}. The flush interval is long enough that the
+ * background flusher never runs; each test flushes explicitly.
+ */
+class FeedbackWriteBehindBufferTests {
+
+	private final ObjectMapper objectMapper = new ObjectMapper()
+		.registerModule(new JavaTimeModule())
+		.disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+
+	@TempDir
+	Path dir;
+
+	private Path journal;
+
+	private Path deadLetter;
+
+	private FeedbackRepository repository;
+
+	// Every list handed to saveMultiple or saveEach, in order; stubbed with willAnswer(..).given(..) so
+	// re-stubbing does not call the previous answer
+	private final List<List<ClinicFeedback>> sent = new ArrayList<>();
+
+	private FeedbackWriteBehindBuffer buffer;
+
+	@BeforeEach
+	void setup() {
+		journal = dir.resolve("journal.ndjson");
+		deadLetter = dir.resolve("dead-letter.ndjson");
+		repository = mock(FeedbackRepository.class);
+		willSave();
+	}
+
+	@AfterEach
+	void shutdown() throws InterruptedException {
+		if (buffer != null) {
+			buffer.shutdown();
+		}
+	}
+
+	@Test
+	void journalsOfferedFeedbacksAndTruncatesOnceAllAreSaved() throws IOException {
+		start(10);
+		ClinicFeedback a = feedback("a");
+		ClinicFeedback b = feedback("b");
+
+		assertThat(buffer.offer(a)).isTrue();
+		assertThat(buffer.offer(b)).isTrue();
+		assertThat(journalLines()).hasSize(2);
+
+		buffer.flush();
+
+		assertThat(sent).containsExactly(List.of(a, b));
+		assertThat(Files.size(journal)).isZero();
+		assertThat(buffer.stats().flushed()).isEqualTo(2);
+	}
+
+	@Test
+	void replaysJournalOnStartAndSkipsTornLine() throws IOException {
+		ClinicFeedback a = feedback("a");
+		ClinicFeedback b = feedback("b");
+		String torn = objectMapper.writeValueAsString(feedback("torn"));
+		Files.writeString(journal, objectMapper.writeValueAsString(a) + "\n" + objectMapper.writeValueAsString(b) + "\n"
+			+ torn.substring(0, torn.length() / 2), StandardCharsets.UTF_8);
+
+		start(10);
+		assertThat(buffer.stats().pendingRetry()).isEqualTo(2);
+
+		// A new feedback starts on a line of its own instead of continuing the torn one
+		ClinicFeedback c = feedback("c");
+		buffer.offer(c);
+		List<String> lines = journalLines();
+		assertThat(lines).hasSize(4);
+		assertThat(objectMapper.readValue(lines.get(3), ClinicFeedback.class)).isEqualTo(c);
+
+		buffer.flush();
+
+		// Recovered feedbacks go first
+		assertThat(sent).containsExactly(List.of(a, b), List.of(c));
+		assertThat(Files.size(journal)).isZero();
+	}
+
+	@Test
+	void retriesOnlyFailedFeedbacksAfterBackoff() throws IOException, InterruptedException {
+		start(10);
+		ClinicFeedback a = feedback("a");
+		ClinicFeedback b = feedback("b");
+		ClinicFeedback c = feedback("c");
+		buffer.offer(a);
+		buffer.offer(b);
+		buffer.offer(c);
+		willAnswer(invocation -> {
+			sent.add(List.copyOf(invocation.<List<ClinicFeedback>>getArgument(0)));
+			return result(2, List.of(b), List.of());
+		}).given(repository).saveMultiple(anyList());
+
+		buffer.flush();
+
+		assertThat(buffer.stats().pendingRetry()).isEqualTo(1);
+		assertThat(buffer.stats().failedFlushes()).isEqualTo(1);
+		assertThat(journalLines()).hasSize(3);
+
+		// Still backing off: nothing is sent
+		willSave();
+		buffer.flush();
+		assertThat(sent).hasSize(1);
+
+		// Shutdown drains regardless of the backoff, resending only the failed feedback
+		buffer.shutdown();
+		assertThat(sent).containsExactly(List.of(a, b, c), List.of(b));
+		assertThat(Files.size(journal)).isZero();
+		assertThat(buffer.stats().flushed()).isEqualTo(3);
+		buffer = null;
+	}
+
+	@Test
+	void deadLettersRejectedAndExhaustedFeedbacks() throws IOException {
+		start(10, 1);
+		ClinicFeedback a = feedback("a");
+		ClinicFeedback b = feedback("b");
+		buffer.offer(a);
+		buffer.offer(b);
+		willReturn(result(0, List.of(b), List.of(a))).given(repository).saveMultiple(anyList());
+
+		buffer.flush();
+
+		List<String> lines = Files.readAllLines(deadLetter, StandardCharsets.UTF_8);
+		assertThat(lines).hasSize(2);
+		FeedbackWriteBehindBuffer.DeadLetter rejected = objectMapper.readValue(lines.get(0), FeedbackWriteBehindBuffer.DeadLetter.class);
+		assertThat(rejected.feedback()).isEqualTo(a);
+		assertThat(rejected.reason()).isEqualTo("rejected by FlaskDB");
+		FeedbackWriteBehindBuffer.DeadLetter exhausted = objectMapper.readValue(lines.get(1), FeedbackWriteBehindBuffer.DeadLetter.class);
+		assertThat(exhausted.feedback()).isEqualTo(b);
+		assertThat(exhausted.attempts()).isEqualTo(1);
+		assertThat(buffer.stats().deadLettered()).isEqualTo(2);
+		assertThat(buffer.stats().pendingRetry()).isZero();
+		assertThat(Files.size(journal)).isZero();
+	}
+
+	@Test
+	void resendsRejectedBulkRequestOneFeedbackAtATime() throws IOException {
+		start(10);
+		ClinicFeedback a = feedback("a");
+		ClinicFeedback b = feedback("b");
+		ClinicFeedback c = feedback("c");
+		buffer.offer(a);
+		buffer.offer(b);
+		buffer.offer(c);
+		given(repository.isBulkEnabled()).willReturn(true);
+		willReturn(result(0, List.of(), List.of(a, b, c))).given(repository).saveMultiple(anyList());
+		willAnswer(invocation -> {
+			sent.add(List.copyOf(invocation.<List<ClinicFeedback>>getArgument(0)));
+			return result(2, List.of(), List.of(b));
+		}).given(repository).saveEach(anyList());
+
+		buffer.flush();
+
+		assertThat(sent).containsExactly(List.of(a, b, c));
+		List<String> lines = Files.readAllLines(deadLetter, StandardCharsets.UTF_8);
+		assertThat(lines).hasSize(1);
+		assertThat(objectMapper.readValue(lines.get(0), FeedbackWriteBehindBuffer.DeadLetter.class).feedback()).isEqualTo(b);
+		assertThat(buffer.stats().flushed()).isEqualTo(2);
+	}
+
+	private void start(int batchSize) throws IOException {
+		start(batchSize, 10);
+	}
+
+	private void start(int batchSize, int maxAttempts) throws IOException {
+		buffer = new FeedbackWriteBehindBuffer(repository, new FeedbackReadCache(true, Duration.ofSeconds(5), 1, 100),
+			objectMapper, true, 100, batchSize, Duration.ofHours(1), journal.toString(), deadLetter.toString(), false,
+			maxAttempts);
+		buffer.start();
+	}
+
+	private void willSave() {
+		willAnswer(invocation -> {
+			List<ClinicFeedback> feedbacks = List.copyOf(invocation.<List<ClinicFeedback>>getArgument(0));
+			sent.add(feedbacks);
+			return result(feedbacks.size(), List.of(), List.of());
+		}).given(repository).saveMultiple(anyList());
+	}
+
+	private List<String> journalLines() throws IOException {
+		return Files.readAllLines(journal, StandardCharsets.UTF_8);
+	}
+
+	private static BulkSaveResult result(int saved, List<ClinicFeedback> retryable, List<ClinicFeedback> rejected) {
+		return new BulkSaveResult(saved, retryable.size() + rejected.size(), 1, List.of(), retryable, rejected);
+	}
+
+	private static ClinicFeedback feedback(String comment) {
+		return new ClinicFeedback("owner@example.com", comment);
+	}
+
+}
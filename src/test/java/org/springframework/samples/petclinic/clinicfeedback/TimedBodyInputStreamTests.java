@@ -0,0 +1,165 @@
+package org.springframework.samples.petclinic.clinicfeedback;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.net.http.HttpTimeoutException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Flow;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Test class for {@link TimedBodyInputStream}, driven directly as a {@link java.net.http.HttpResponse.BodySubscriber}.
+ */
+class TimedBodyInputStreamTests {
+
+	private final AtomicInteger timeouts = new AtomicInteger();
+
+	private final StubSubscription subscription = new StubSubscription();
+
+	private final ScheduledExecutorService publisher = Executors.newSingleThreadScheduledExecutor();
+
+	@AfterEach
+	void shutdown() {
+		publisher.shutdownNow();
+	}
+
+	@Test
+	void readsDeliveredBuffersAndRequestsMoreAsTheyAreConsumed() throws IOException {
+		TimedBodyInputStream body = stream(Duration.ofSeconds(5), Duration.ofSeconds(5));
+		body.onSubscribe(subscription);
+		assertThat(subscription.requested.get()).isEqualTo(1);
+
+		body.onNext(List.of(bytes("ab"), bytes("c")));
+		body.onNext(List.of(bytes("de")));
+		body.onComplete();
+
+		assertThat(new String(body.readAllBytes(), StandardCharsets.UTF_8)).isEqualTo("abcde");
+		assertThat(subscription.requested.get()).isEqualTo(3);
+		assertThat(body.read()).isEqualTo(-1);
+		assertThat(timeouts.get()).isZero();
+	}
+
+	@Test
+	void idleTimeoutFailsTheReadAndCancelsTheSubscription() throws IOException {
+		TimedBodyInputStream body = stream(Duration.ofMillis(50), Duration.ofSeconds(5));
+		body.onSubscribe(subscription);
+		body.onNext(List.of(bytes("a")));
+
+		assertThat(body.read()).isEqualTo('a');
+		long start = System.nanoTime();
+		assertThatThrownBy(body::read).isInstanceOf(HttpTimeoutException.class)
+			.hasMessageContaining("No response data received for 50 ms");
+		assertThat(System.nanoTime() - start).isGreaterThanOrEqualTo(TimeUnit.MILLISECONDS.toNanos(50));
+		assertThat(subscription.cancelled).isTrue();
+		assertThat(timeouts.get()).isEqualTo(1);
+	}
+
+	@Test
+	void bodyDeadlineFailsEvenWhileDataKeepsTrickling() {
+		TimedBodyInputStream body = stream(Duration.ofSeconds(5), Duration.ofMillis(200));
+		body.onSubscribe(subscription);
+		publisher.scheduleAtFixedRate(() -> body.onNext(List.of(bytes("x"))), 0, 20, TimeUnit.MILLISECONDS);
+
+		long start = System.nanoTime();
+		assertThatThrownBy(() -> {
+			while (body.read() != -1) {
+				// keep reading until the deadline passes
+			}
+		}).isInstanceOf(HttpTimeoutException.class).hasMessageContaining("deadline");
+		// Well before the idle timeout would have fired
+		assertThat(System.nanoTime() - start).isLessThan(TimeUnit.SECONDS.toNanos(5));
+		assertThat(subscription.cancelled).isTrue();
+		assertThat(timeouts.get()).isEqualTo(1);
+	}
+
+	@Test
+	void onTimeoutIsCalledOnlyOnce() {
+		TimedBodyInputStream body = stream(Duration.ofMillis(10), Duration.ofSeconds(5));
+		body.onSubscribe(subscription);
+
+		assertThatThrownBy(body::read).isInstanceOf(HttpTimeoutException.class);
+		// Later reads fail because the stream is closed, without timing out again
+		assertThatThrownBy(body::read).isInstanceOf(IOException.class).isNotInstanceOf(HttpTimeoutException.class);
+		assertThatThrownBy(() -> body.read(new byte[8], 0, 8)).isInstanceOf(IOException.class);
+
+		assertThat(timeouts.get()).isEqualTo(1);
+	}
+
+	@Test
+	void onErrorIsRethrownAfterTheDataReceivedBeforeIt() throws IOException {
+		TimedBodyInputStream body = stream(Duration.ofSeconds(5), Duration.ofSeconds(5));
+		body.onSubscribe(subscription);
+		body.onNext(List.of(bytes("ab")));
+		IOException reset = new IOException("connection reset");
+		body.onError(reset);
+
+		assertThat(body.read()).isEqualTo('a');
+		assertThat(body.read()).isEqualTo('b');
+		assertThatThrownBy(body::read).isInstanceOf(IOException.class)
+			.hasMessageContaining("connection reset")
+			.hasCause(reset);
+		assertThat(timeouts.get()).isZero();
+	}
+
+	@Test
+	void closeBeforeSubscribeCancelsTheSubscription() {
+		TimedBodyInputStream body = stream(Duration.ofSeconds(5), Duration.ofSeconds(5));
+
+		body.close();
+		body.onSubscribe(subscription);
+
+		assertThat(subscription.cancelled).isTrue();
+		assertThat(subscription.requested.get()).isZero();
+	}
+
+	@Test
+	void closeAfterSubscribeCancelsTheSubscription() {
+		TimedBodyInputStream body = stream(Duration.ofSeconds(5), Duration.ofSeconds(5));
+		body.onSubscribe(subscription);
+
+		body.close();
+
+		assertThat(subscription.cancelled).isTrue();
+		assertThatThrownBy(body::read).isInstanceOf(IOException.class).hasMessageContaining("closed");
+		assertThat(timeouts.get()).isZero();
+	}
+
+	private TimedBodyInputStream stream(Duration idleTimeout, Duration bodyTimeout) {
+		return new TimedBodyInputStream(idleTimeout.toNanos(), bodyTimeout.toNanos(), timeouts::incrementAndGet);
+	}
+
+	private static ByteBuffer bytes(String text) {
+		return ByteBuffer.wrap(text.getBytes(StandardCharsets.UTF_8));
+	}
+
+	private static final class StubSubscription implements Flow.Subscription {
+
+		final AtomicLong requested = new AtomicLong();
+
+		volatile boolean cancelled;
+
+		@Override
+		public void request(long n) {
+			requested.addAndGet(n);
+		}
+
+		@Override
+		public void cancel() {
+			cancelled = true;
+		}
+
+	}
+
+}
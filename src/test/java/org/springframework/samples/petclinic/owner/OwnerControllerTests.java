@@ -26,12 +26,17 @@ import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.BDDMockito.given;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.model;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.view;
 
 import java.time.LocalDate;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 import org.assertj.core.util.Lists;
 import org.hamcrest.BaseMatcher;
@@ -243,4 +248,24 @@ class OwnerControllerTests {
 			.andExpect(view().name("owners/ownerDetails"));
 	}
 
+	@Test
+	void testGetOwnerPetsWithSeveralPets() throws Exception {
+		given(this.owners.findPetIdsByOwnerId(TEST_OWNER_ID)).willReturn(List.of(1, 7));
+		mockMvc.perform(get("/owners/{ownerId}/pets", TEST_OWNER_ID))
+			.andExpect(status().isOk())
+			.andExpect(content().string("Pets for owner 1: 1, 7"));
+	}
+
+	@Test
+	void testGetPetsByOwnerIds() throws Exception {
+		Map<Integer, int[]> petIds = new LinkedHashMap<>();
+		petIds.put(1, new int[] { 1, 7 });
+		petIds.put(2, new int[0]);
+		given(this.owners.findPetIdsByOwnerIds(Set.of(1, 2))).willReturn(petIds);
+		mockMvc.perform(get("/owners/pets").param("ownerIds", "1,2"))
+			.andExpect(status().isOk())
+			.andExpect(jsonPath("$['1'][1]").value(7))
+			.andExpect(jsonPath("$['2']", empty()));
+	}
+
 }
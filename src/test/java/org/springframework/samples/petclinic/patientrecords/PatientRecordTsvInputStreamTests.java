@@ -0,0 +1,117 @@
+package org.springframework.samples.petclinic.patientrecords;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.samples.petclinic.jobs.JobProgress;
+import org.springframework.samples.petclinic.model.PatientRecord;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Test class for {@link PatientRecordTsvInputStream}
+ */
+class PatientRecordTsvInputStreamTests {
+
+    private static final List<PatientRecord> ROWS = List.of(
+        new PatientRecord("Dental Cleaning", 12, LocalDateTime.of(2024, 1, 2, 3, 4, 5), true, "line one\nline two"),
+        new PatientRecord("Tab\there", 7, LocalDateTime.of(1999, 12, 31, 23, 59, 59), false, null),
+        new PatientRecord("C:\\pets", 1234, LocalDateTime.of(2020, 2, 29, 12, 0, 0), null, "cr\r nul\0 ünï ✓ 🐾"));
+
+    // ROWS in the LOAD DATA text format
+    private static final String EXPECTED_TSV =
+        "Dental Cleaning\t12\t2024-01-02 03:04:05\t1\tline one\\nline two\n" +
+        "Tab\\there\t7\t1999-12-31 23:59:59\t0\t\\N\n" +
+        "C:\\\\pets\t1234\t2020-02-29 12:00:00\t0\tcr\\r nul\\0 ünï ✓ 🐾\n";
+
+    @Test
+    void escapesSpecialCharactersAndNulls() throws IOException {
+        try (InputStream in = new PatientRecordTsvInputStream(cycling(ROWS), ROWS.size(), JobProgress.NONE)) {
+            assertThat(new String(in.readAllBytes(), StandardCharsets.UTF_8)).isEqualTo(EXPECTED_TSV);
+        }
+    }
+
+    @Test
+    void rowsSpanningSeveralBuffersAreReadIntact() throws IOException {
+        // Enough rows to refill the 64 KB buffer several times
+        int cycles = 2_000;
+        PatientRecordTsvInputStream in = new PatientRecordTsvInputStream(cycling(ROWS), cycles * ROWS.size(), JobProgress.NONE);
+
+        // Odd-sized reads mixed with single-byte ones never line up with row or buffer boundaries
+        ByteArrayOutputStream read = new ByteArrayOutputStream();
+        byte[] chunk = new byte[7];
+        int n;
+        while ((n = in.read(chunk, 0, chunk.length)) != -1) {
+            read.write(chunk, 0, n);
+            int b = in.read();
+            if (b == -1) {
+                break;
+            }
+            read.write(b);
+        }
+
+        assertThat(new String(read.toByteArray(), StandardCharsets.UTF_8)).isEqualTo(EXPECTED_TSV.repeat(cycles));
+        assertThat(in.generatedRows()).isEqualTo(cycles * ROWS.size());
+        assertThat(in.read()).isEqualTo(-1);
+    }
+
+    @Test
+    void rowLargerThanBufferIsNotSplit() throws IOException {
+        String notes = "x".repeat(100_000);
+        PatientRecord large = new PatientRecord("Blood Work", 30, LocalDateTime.of(2024, 6, 1, 8, 0, 0), true, notes);
+
+        try (InputStream in = new PatientRecordTsvInputStream(cycling(List.of(large, ROWS.get(1))), 2, JobProgress.NONE)) {
+            assertThat(new String(in.readAllBytes(), StandardCharsets.UTF_8))
+                .isEqualTo("Blood Work\t30\t2024-06-01 08:00:00\t1\t" + notes + "\n" +
+                    "Tab\\there\t7\t1999-12-31 23:59:59\t0\t\\N\n");
+        }
+    }
+
+    @Test
+    void reportsProgressAndFailsOnceCancelled() throws IOException {
+        AtomicLong advanced = new AtomicLong();
+        boolean[] cancelled = {false};
+        JobProgress progress = new JobProgress() {
+            @Override
+            public void advance(long units) {
+                advanced.addAndGet(units);
+            }
+
+            @Override
+            public boolean isCancelled() {
+                return cancelled[0];
+            }
+        };
+
+        try (InputStream in = new PatientRecordTsvInputStream(cycling(ROWS), 30, progress)) {
+            in.readAllBytes();
+        }
+        assertThat(advanced.get()).isEqualTo(30);
+
+        cancelled[0] = true;
+        InputStream in = new PatientRecordTsvInputStream(cycling(ROWS), 30, progress);
+        assertThatThrownBy(in::read).isInstanceOf(IOException.class).hasMessageContaining("cancelled");
+    }
+
+    /**
+     * A generator that hands out copies of the given rows in turn.
+     */
+    private static PatientRecordRowGenerator cycling(List<PatientRecord> rows) {
+        int[] next = {0};
+        return record -> {
+            PatientRecord row = rows.get(next[0]++ % rows.size());
+            record.setTreatmentType(row.getTreatmentType());
+            record.setPatientWeight(row.getPatientWeight());
+            record.setVisitDate(row.getVisitDate());
+            record.setTreatmentCompleted(row.getTreatmentCompleted());
+            record.setMedicalNotes(row.getMedicalNotes());
+        };
+    }
+}
@@ -20,6 +20,8 @@ import static org.assertj.core.api.Assertions.assertThat;
 
 import java.time.LocalDate;
 import java.util.Collection;
+import java.util.List;
+import java.util.Map;
 
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -182,6 +184,42 @@ class ClinicServiceTests {
 		assertThat(pet7.getName()).isEqualTo(newName);
 	}
 
+	@Test
+	@Transactional
+	void shouldFindPetIdsGroupedByOwner() {
+		Owner owner6 = this.owners.findById(6);
+		Pet pet = new Pet();
+		pet.setName("bowser");
+		pet.setType(EntityUtils.getById(this.owners.findPetTypes(), PetType.class, 2));
+		pet.setBirthDate(LocalDate.now());
+		owner6.addPet(pet);
+		this.owners.save(owner6);
+		int newPetId = this.owners.findById(6).getPet("bowser").getId();
+
+		Owner petless = new Owner();
+		petless.setFirstName("Sam");
+		petless.setLastName("Schultz");
+		petless.setAddress("4, Evans Street");
+		petless.setCity("Wollongong");
+		petless.setTelephone("4444444444");
+		this.owners.save(petless);
+
+		Map<Integer, int[]> petIds = this.owners.findPetIdsByOwnerIds(List.of(10, 1, petless.getId(), 6, 3));
+
+		// Keyed in the requested order, each owner's pets in ascending id order
+		assertThat(petIds.keySet()).containsExactly(10, 1, petless.getId(), 6, 3);
+		assertThat(petIds.get(10)).containsExactly(12, 13);
+		assertThat(petIds.get(1)).containsExactly(1);
+		assertThat(petIds.get(petless.getId())).isEmpty();
+		assertThat(petIds.get(6)).containsExactly(7, 8, newPetId);
+		assertThat(petIds.get(3)).containsExactly(3, 4);
+	}
+
+	@Test
+	void shouldFindNoPetIdsForNoOwners() {
+		assertThat(this.owners.findPetIdsByOwnerIds(List.of())).isEmpty();
+	}
+
 	@Test
 	void shouldFindVets() {
 		Collection<Vet> vets = this.vets.findAll();